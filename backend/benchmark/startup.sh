@@ -0,0 +1,137 @@
+#!/usr/bin/env bash
+# Compares startup modes: time to the first HTTP answer (liveness), time to the first good request
+# (GET /events answered 200, i.e. database and caches reachable), time to ready (readiness, i.e. after
+# startup warm-up) and resident memory once ready.
+#
+# Build the artifacts for the modes you compare, then run against the usual Postgres + Redis:
+#   mvn -DskipTests package                  # jvm: target/availability-tests-*.jar
+#   mvn -Pcds -DskipTests package            # cds: JVM with the AppCDS archive from a training run
+#   mvn -Pcrac -DskipTests package           # crac: restore of a warmed-up checkpoint (CRaC JDK)
+#   mvn -Pnative -DskipTests native:compile  # native: target/availability-tests
+#   docker compose up -d postgres redis
+#   ./benchmark/startup.sh [jvm|cds|crac|native|both|all]   (both: jvm and native)
+#
+# Environment: RUNS per mode (default 5), PORT (default 18080; crac restores on the port it was
+# trained on), JAVA_OPTS for the JVM runs, TIMEOUT seconds to wait for readiness (default 120)
+
+set -euo pipefail
+
+MODE=${1:-both}
+RUNS=${RUNS:-5}
+PORT=${PORT:-18080}
+TIMEOUT=${TIMEOUT:-120}
+JAVA_OPTS=${JAVA_OPTS:-}
+cd "$(dirname "$0")/.."
+
+JAR=$(ls target/availability-tests-*.jar 2>/dev/null | grep -v plain | head -1 || true)
+NATIVE=target/availability-tests
+CDS_JAR=$(ls target/application/availability-tests-*.jar 2>/dev/null | head -1 || true)
+CDS_ARCHIVE=target/application/application.jsa
+CRAC_IMAGE=target/crac
+
+now_ms() {
+    echo $(( $(date +%s%N) / 1000000 ))
+}
+
+# Polls an actuator endpoint until it reports UP; prints elapsed ms since $2
+wait_up() {
+    local path=$1 start=$2
+    while true; do
+        if curl -fs "http://localhost:$PORT$path" 2>/dev/null | grep -q '"status":"UP"'; then
+            echo $(( $(now_ms) - start ))
+            return 0
+        fi
+        if (( $(now_ms) - start > TIMEOUT * 1000 )); then
+            echo "timeout"
+            return 1
+        fi
+        sleep 0.02
+    done
+}
+
+# Polls GET /events until it answers 200; prints elapsed ms since $1
+wait_first_good_request() {
+    local start=$1
+    while true; do
+        if curl -fs -o /dev/null "http://localhost:$PORT/events?size=1" 2>/dev/null; then
+            echo $(( $(now_ms) - start ))
+            return 0
+        fi
+        if (( $(now_ms) - start > TIMEOUT * 1000 )); then
+            echo "timeout"
+            return 1
+        fi
+        sleep 0.02
+    done
+}
+
+# Median of the numeric lines on stdin ("timeout" and "n/a" are skipped), n/a if there are none
+median() {
+    grep -E '^[0-9]+$' | sort -n | awk '{ v[NR] = $1 }
+        END { if (NR == 0) print "n/a"; else print (NR % 2) ? v[(NR + 1) / 2] : int((v[NR / 2] + v[NR / 2 + 1]) / 2) }'
+}
+
+run_mode() {
+    local mode=$1
+    local -a cmd
+    case "$mode" in
+        jvm)
+            [ -n "$JAR" ] || { echo "No JAR in target/; run mvn -DskipTests package" >&2; return 1; }
+            # shellcheck disable=SC2206
+            cmd=(java $JAVA_OPTS -jar "$JAR" --server.port="$PORT")
+            ;;
+        cds)
+            [ -f "$CDS_ARCHIVE" ] || { echo "No AppCDS archive; run mvn -Pcds -DskipTests package" >&2; return 1; }
+            # shellcheck disable=SC2206
+            cmd=(java $JAVA_OPTS -XX:SharedArchiveFile="$CDS_ARCHIVE" -jar "$CDS_JAR" --server.port="$PORT")
+            ;;
+        crac)
+            [ -d "$CRAC_IMAGE" ] || { echo "No CRaC checkpoint; run mvn -Pcrac -DskipTests package" >&2; return 1; }
+            cmd=(java -XX:CRaCRestoreFrom="$CRAC_IMAGE")
+            ;;
+        native)
+            [ -x "$NATIVE" ] || { echo "No native executable; run mvn -Pnative -DskipTests native:compile" >&2; return 1; }
+            cmd=("$NATIVE" --server.port="$PORT")
+            ;;
+    esac
+
+    local live_file first_file ready_file rss_file
+    live_file=$(mktemp); first_file=$(mktemp); ready_file=$(mktemp); rss_file=$(mktemp)
+
+    for i in $(seq 1 "$RUNS"); do
+        local start pid live first ready rss
+        start=$(now_ms)
+        "${cmd[@]}" > "/tmp/startup-$mode-$i.log" 2>&1 &
+        pid=$!
+
+        live=$(wait_up /actuator/health/liveness "$start") || true
+        first=$(wait_first_good_request "$start") || true
+        ready=$(wait_up /actuator/health/readiness "$start") || true
+        # The process may have exited (failed startup, port taken); don't let set -e end the whole run
+        rss=$(awk '/VmRSS/ { print int($2 / 1024) }' "/proc/$pid/status" 2>/dev/null || true)
+        if [ -z "$rss" ]; then
+            rss="n/a"
+            echo "$mode run $i: process exited early, see /tmp/startup-$mode-$i.log" >&2
+        fi
+
+        kill "$pid" 2>/dev/null || true
+        wait "$pid" 2>/dev/null || true
+
+        echo "$mode run $i: live ${live} ms, first good request ${first} ms, ready ${ready} ms, RSS ${rss} MB"
+        echo "$live" >> "$live_file"
+        echo "$first" >> "$first_file"
+        echo "$ready" >> "$ready_file"
+        echo "$rss" >> "$rss_file"
+    done
+
+    echo "== $mode (median of $RUNS): live $(median < "$live_file") ms, first good request $(median < "$first_file") ms," \
+        "ready $(median < "$ready_file") ms, RSS $(median < "$rss_file") MB"
+    rm -f "$live_file" "$first_file" "$ready_file" "$rss_file"
+}
+
+case "$MODE" in
+    jvm|cds|crac|native) run_mode "$MODE" ;;
+    both) run_mode jvm; run_mode native ;;
+    all) run_mode jvm; run_mode cds; run_mode crac; run_mode native ;;
+    *) echo "usage: $0 [jvm|cds|crac|native|both|all]" >&2; exit 1 ;;
+esac
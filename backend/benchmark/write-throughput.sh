@@ -0,0 +1,113 @@
+#!/usr/bin/env bash
+# Measures reservation write-path throughput and the HOT update ratio on the counter tables.
+#
+# Each pgbench transaction mirrors one reservation lifecycle on a single event date:
+# counter increment, reservation + allocation insert, then expiry (status update + counter decrement),
+# so counters end where they started and the run can be repeated.
+#
+# Compare the V12 index audit against the schema right before it, each in its own database:
+#   ./benchmark/write-throughput.sh before     # migrated with --spring.flyway.target=11
+#   ./benchmark/write-throughput.sh after      # migrated with --spring.flyway.target=12
+# Do not compare against the latest schema: V13 adds the availability delta trigger to the counter
+# tables, which changes the cost of every counter update on its own.
+#
+# V12's fillfactor=70 only applies to pages written after it, so the counter tables are rewritten
+# with VACUUM FULL before the run (REWRITE=0 skips it). Existing production tables need the same
+# rewrite, VACUUM FULL or pg_repack, before they get the HOT headroom.
+#
+# Environment: DB_HOST, DB_PORT, DB_NAME, DB_USER, DB_PASSWORD (same defaults as application.yml),
+# CLIENTS (default 16), DURATION seconds (default 30), REWRITE (default 1)
+
+set -euo pipefail
+
+LABEL=${1:-run}
+export PGHOST=${DB_HOST:-localhost}
+export PGPORT=${DB_PORT:-5432}
+export PGDATABASE=${DB_NAME:-booking}
+export PGUSER=${DB_USER:-booking_user}
+export PGPASSWORD=${DB_PASSWORD:-booking_pass}
+CLIENTS=${CLIENTS:-16}
+DURATION=${DURATION:-30}
+REWRITE=${REWRITE:-1}
+
+read -r EVENT_ID DAY_NUMBER START_SECONDS SHARDS TICKET_TYPE_ID < <(psql -AtF ' ' -c "
+    SELECT c.event_id,
+           c.date - DATE '2000-01-01',
+           EXTRACT(EPOCH FROM c.start_time)::INTEGER,
+           COUNT(*),
+           (SELECT MIN(id) FROM ticket_type)
+    FROM consumption c
+    GROUP BY c.event_id, c.date, c.start_time
+    ORDER BY c.date DESC
+    LIMIT 1")
+
+if [ -z "${EVENT_ID:-}" ]; then
+    echo "No consumption shards found; seed data first (POST /api/test-data/seed)" >&2
+    exit 1
+fi
+
+SCRIPT=$(mktemp)
+trap 'rm -f "$SCRIPT"' EXIT
+cat > "$SCRIPT" <<'SQL'
+\set shard random(0, :shards - 1)
+BEGIN;
+UPDATE consumption SET shard_current = shard_current + 1, updated_at = NOW()
+ WHERE event_id = :event_id AND date = DATE '2000-01-01' + :day_number
+   AND start_time = TIME '00:00' + :start_seconds * INTERVAL '1 second' AND shard_id = :shard;
+UPDATE consumption_tt SET shard_current = shard_current + 1, updated_at = NOW()
+ WHERE event_id = :event_id AND date = DATE '2000-01-01' + :day_number
+   AND start_time = TIME '00:00' + :start_seconds * INTERVAL '1 second' AND ticket_type_id = :ticket_type_id AND shard_id = :shard;
+INSERT INTO reservation (event_id, date, start_time, payment_ref, status, expires_at, ticket_count)
+ VALUES (:event_id, DATE '2000-01-01' + :day_number, TIME '00:00' + :start_seconds * INTERVAL '1 second',
+         'write-throughput-benchmark', 'PENDING', NOW() + INTERVAL '1 minute', 1)
+ RETURNING id \gset
+INSERT INTO reservation_allocation (reservation_id, ticket_type_id, shard_id, quantity)
+ VALUES (:id, :ticket_type_id, :shard, 1);
+UPDATE reservation SET status = 'EXPIRED', updated_at = NOW()
+ WHERE id = :id AND date = DATE '2000-01-01' + :day_number;
+UPDATE consumption SET shard_current = GREATEST(0, shard_current - 1), updated_at = NOW()
+ WHERE event_id = :event_id AND date = DATE '2000-01-01' + :day_number
+   AND start_time = TIME '00:00' + :start_seconds * INTERVAL '1 second' AND shard_id = :shard;
+UPDATE consumption_tt SET shard_current = GREATEST(0, shard_current - 1), updated_at = NOW()
+ WHERE event_id = :event_id AND date = DATE '2000-01-01' + :day_number
+   AND start_time = TIME '00:00' + :start_seconds * INTERVAL '1 second' AND ticket_type_id = :ticket_type_id AND shard_id = :shard;
+COMMIT;
+SQL
+
+if [ "$REWRITE" = "1" ]; then
+    psql -qc "VACUUM FULL consumption" -c "VACUUM FULL consumption_tt"
+fi
+psql -qc "VACUUM ANALYZE consumption" -c "VACUUM ANALYZE consumption_tt"
+
+psql -qc "SELECT pg_stat_reset_single_table_counters('consumption'::regclass),
+                 pg_stat_reset_single_table_counters('consumption_tt'::regclass)" > /dev/null
+
+echo "== $LABEL: event $EVENT_ID, $SHARDS shards, $CLIENTS clients, ${DURATION}s"
+psql -c "SELECT relname, reloptions, pg_size_pretty(pg_relation_size(oid)) AS size
+         FROM pg_class WHERE relname IN ('consumption', 'consumption_tt') ORDER BY relname"
+psql -c "SELECT indexrelid::regclass AS index, pg_size_pretty(pg_relation_size(indexrelid)) AS size
+         FROM pg_index WHERE indrelid IN ('consumption'::regclass, 'consumption_tt'::regclass) ORDER BY 1"
+
+pgbench -n -M prepared -c "$CLIENTS" -j "$CLIENTS" -T "$DURATION" \
+    -D event_id="$EVENT_ID" -D day_number="$DAY_NUMBER" -D start_seconds="$START_SECONDS" \
+    -D shards="$SHARDS" -D ticket_type_id="$TICKET_TYPE_ID" \
+    -f "$SCRIPT" | grep -E "tps|latency|failed"
+
+# Stats are flushed asynchronously; give the collector a moment
+sleep 1
+psql -c "SELECT relname, n_tup_upd AS updates, n_tup_hot_upd AS hot_updates,
+                ROUND(100.0 * n_tup_hot_upd / NULLIF(n_tup_upd, 0), 1) AS hot_pct
+         FROM pg_stat_user_tables WHERE relname IN ('consumption', 'consumption_tt') ORDER BY relname"
+
+# reservation_date (V16) gets a row per inserted reservation; older schemas do not have it
+psql -qc "DELETE FROM reservation_allocation a USING reservation r
+          WHERE a.reservation_id = r.id AND r.payment_ref = 'write-throughput-benchmark';
+          DO \$\$
+          BEGIN
+              IF to_regclass('reservation_date') IS NOT NULL THEN
+                  DELETE FROM reservation_date d USING reservation r
+                  WHERE d.id = r.id AND r.payment_ref = 'write-throughput-benchmark';
+              END IF;
+          END
+          \$\$;
+          DELETE FROM reservation WHERE payment_ref = 'write-throughput-benchmark'"
@@ -0,0 +1,174 @@
+package com.booking.admission;
+
+import com.booking.exception.AdmissionRejectedException;
+import com.booking.exception.InsufficientCapacityException;
+import com.booking.exception.NoShardsAvailableException;
+import com.booking.sharding.ShardHealthMonitor;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Admission control in front of the reservation path.
+ * Keeps one AIMD concurrency limit per event date: the limit grows by ~1 per round trip
+ * while latency stays under target and is cut multiplicatively when it doesn't, so excess
+ * demand is shed with a 429 before it queues on the R2DBC pool.
+ * A date's limit is dropped after booking.admission.idle-expiry-seconds without reservations, so
+ * past and quiet dates don't accumulate; it starts again from initial-limit if traffic returns.
+ */
+@Slf4j
+@Component
+public class ReservationAdmissionLimiter {
+
+    private final ShardHealthMonitor healthMonitor;
+    private final Cache<String, AimdLimit> limits;
+    private final AtomicInteger totalInFlight = new AtomicInteger();
+    private final Counter rejectedOverLimit;
+    private final Counter rejectedSoldOut;
+
+    @Value("${booking.admission.enabled:true}")
+    private boolean enabled;
+
+    @Value("${booking.admission.initial-limit:20}")
+    private int initialLimit;
+
+    @Value("${booking.admission.min-limit:2}")
+    private int minLimit;
+
+    @Value("${booking.admission.max-limit:200}")
+    private int maxLimit;
+
+    @Value("${booking.admission.target-latency-ms:250}")
+    private long targetLatencyMs;
+
+    @Value("${booking.admission.backoff-ratio:0.9}")
+    private double backoffRatio;
+
+    public ReservationAdmissionLimiter(ShardHealthMonitor healthMonitor, MeterRegistry meterRegistry,
+                                       @Value("${booking.admission.idle-expiry-seconds:600}") long idleExpirySeconds) {
+        this.healthMonitor = healthMonitor;
+        this.limits = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofSeconds(idleExpirySeconds))
+                .build();
+        this.rejectedOverLimit = Counter.builder("reservation.admission.rejected")
+                .tag("reason", "limit")
+                .register(meterRegistry);
+        this.rejectedSoldOut = Counter.builder("reservation.admission.rejected")
+                .tag("reason", "sold_out")
+                .register(meterRegistry);
+        meterRegistry.gauge("reservation.admission.in_flight", totalInFlight);
+    }
+
+    /**
+     * Run the reservation work if the event date has spare concurrency, otherwise fail fast
+     */
+    public <T> Mono<T> admit(Long eventId, LocalDate date, LocalTime startTime,
+                             Collection<Long> ticketTypeIds, Supplier<Mono<T>> work) {
+        if (!enabled) {
+            return Mono.defer(work);
+        }
+
+        return Mono.defer(() -> {
+            for (Long ticketTypeId : ticketTypeIds) {
+                if (healthMonitor.isKnownSoldOut(eventId, date, startTime, ticketTypeId)) {
+                    rejectedSoldOut.increment();
+                    return Mono.error(new NoShardsAvailableException(
+                            "No available shards for event " + eventId + " on " + date + " at " + startTime
+                    ));
+                }
+            }
+
+            String key = eventId + ":" + date + ":" + startTime;
+            AimdLimit limit = limits.get(key, k -> new AimdLimit(initialLimit));
+            if (!limit.tryAcquire()) {
+                rejectedOverLimit.increment();
+                log.debug("Rejecting reservation for {} ({} in flight, limit {})", key, limit.inFlight.get(), limit.current());
+                return Mono.error(new AdmissionRejectedException(
+                        "Too many concurrent reservations for event " + eventId + " on " + date + " at " + startTime
+                ));
+            }
+
+            long startNanos = System.nanoTime();
+            AtomicBoolean released = new AtomicBoolean(false);
+
+            return work.get()
+                    .doOnSuccess(v -> {
+                        if (released.compareAndSet(false, true)) {
+                            limit.onSample(System.nanoTime() - startNanos, false);
+                        }
+                    })
+                    .doOnError(error -> {
+                        if (released.compareAndSet(false, true)) {
+                            // Capacity rejections are normal answers, anything else (timeouts, pool exhaustion) is a drop
+                            boolean dropped = !(error instanceof InsufficientCapacityException
+                                    || error instanceof NoShardsAvailableException);
+                            limit.onSample(System.nanoTime() - startNanos, dropped);
+                        }
+                    })
+                    .doOnCancel(() -> {
+                        if (released.compareAndSet(false, true)) {
+                            limit.release();
+                        }
+                    });
+        });
+    }
+
+    private final class AimdLimit {
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private double limit;
+
+        private AimdLimit(int initial) {
+            this.limit = initial;
+        }
+
+        private synchronized int current() {
+            return (int) limit;
+        }
+
+        private boolean tryAcquire() {
+            int max = current();
+            while (true) {
+                int now = inFlight.get();
+                if (now >= max) {
+                    return false;
+                }
+                if (inFlight.compareAndSet(now, now + 1)) {
+                    totalInFlight.incrementAndGet();
+                    return true;
+                }
+            }
+        }
+
+        private void release() {
+            inFlight.decrementAndGet();
+            totalInFlight.decrementAndGet();
+        }
+
+        private void onSample(long latencyNanos, boolean dropped) {
+            int inFlightAtSample = inFlight.getAndDecrement();
+            totalInFlight.decrementAndGet();
+            synchronized (this) {
+                if (dropped || latencyNanos > targetLatencyMs * 1_000_000L) {
+                    limit = Math.max(minLimit, limit * backoffRatio);
+                } else if (inFlightAtSample * 2 >= limit) {
+                    // Only probe upwards while the current limit is actually being used
+                    limit = Math.min(maxLimit, limit + 1.0 / limit);
+                }
+            }
+        }
+    }
+}
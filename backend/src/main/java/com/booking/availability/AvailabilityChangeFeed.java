@@ -0,0 +1,163 @@
+package com.booking.availability;
+
+import com.booking.cache.CacheRegion;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.postgresql.api.Notification;
+import io.r2dbc.postgresql.api.PostgresqlConnection;
+import io.r2dbc.postgresql.api.PostgresqlResult;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Listens on the availability_changes channel and republishes the shard availability sent by the
+ * outbox relay inside the JVM. Uses its own connection outside the R2DBC pool, since a LISTEN is tied to
+ * the session that issued it. Independent of Redis, so shard state keeps propagating when
+ * Redis is down.
+ */
+@Slf4j
+@Component
+public class AvailabilityChangeFeed {
+
+    static final String CHANNEL = "availability_changes";
+    private static final Duration CLOSE_TIMEOUT = Duration.ofSeconds(10);
+
+    private final CacheRegion<List<Integer>> shardAvailabilityRegion;
+    private final ObjectMapper objectMapper;
+    private final Counter received;
+    private final Counter malformed;
+    private final Sinks.Many<ConsumptionChange> sink = Sinks.many().multicast().directBestEffort();
+    private Disposable subscription;
+    // Close of the current LISTEN connection, cached so stop() can wait for the close that cancelling starts
+    private volatile Mono<Void> connectionClose = Mono.empty();
+
+    @Value("${booking.availability-feed.enabled:true}")
+    private boolean enabled;
+
+    @Value("${booking.availability-feed.reconnect-backoff-ms:500}")
+    private long reconnectBackoffMs;
+
+    @Value("${spring.r2dbc.url}")
+    private String url;
+
+    @Value("${spring.r2dbc.username}")
+    private String username;
+
+    @Value("${spring.r2dbc.password}")
+    private String password;
+
+    public AvailabilityChangeFeed(CacheRegion<List<Integer>> shardAvailabilityRegion, ObjectMapper objectMapper,
+                                  MeterRegistry meterRegistry) {
+        this.shardAvailabilityRegion = shardAvailabilityRegion;
+        this.objectMapper = objectMapper;
+        this.received = Counter.builder("availability.feed.notifications")
+                .register(meterRegistry);
+        this.malformed = Counter.builder("availability.feed.malformed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Counter changes committed by any node, as relayed from the outbox
+     */
+    public Flux<ConsumptionChange> changes() {
+        return sink.asFlux();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            log.info("Availability change feed disabled, shard state relies on cache TTLs");
+            return;
+        }
+
+        subscription = listen()
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofMillis(reconnectBackoffMs))
+                        .maxBackoff(Duration.ofSeconds(30))
+                        .doBeforeRetry(signal -> log.warn("Availability change feed lost, reconnecting: {}",
+                                signal.failure().getMessage())))
+                .subscribe(this::publish, error -> log.error("Availability change feed stopped", error));
+    }
+
+    /**
+     * Stop listening; completes once the LISTEN connection is closed
+     */
+    public Mono<Void> stop() {
+        if (subscription == null) {
+            return Mono.empty();
+        }
+        subscription.dispose();
+        subscription = null;
+        return connectionClose;
+    }
+
+    @PreDestroy
+    public void destroy() {
+        stop().timeout(CLOSE_TIMEOUT)
+                .onErrorResume(error -> Mono.empty())
+                .block();
+    }
+
+    private Flux<ConsumptionChange> listen() {
+        ConnectionFactory connectionFactory = ConnectionFactories.get(ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build());
+
+        return Flux.usingWhen(
+                Mono.from(connectionFactory.create()).cast(PostgresqlConnection.class)
+                        .doOnNext(connection -> connectionClose = connection.close().cache()),
+                connection -> connection.createStatement("LISTEN " + CHANNEL)
+                        .execute()
+                        .flatMap(PostgresqlResult::getRowsUpdated)
+                        .then(Mono.fromRunnable(this::onListening))
+                        .thenMany(connection.getNotifications())
+                        // The notification stream completes when the connection goes away; treat that as a failure to reconnect
+                        .concatWith(Mono.error(new IllegalStateException("LISTEN connection closed")))
+                        .mapNotNull(this::parse),
+                connection -> connectionClose
+        );
+    }
+
+    /**
+     * Changes made while we were not listening are lost, so drop local shard state rather than trust it
+     */
+    private void onListening() {
+        shardAvailabilityRegion.invalidateAll();
+        log.info("Listening for availability changes on channel {}", CHANNEL);
+    }
+
+    private ConsumptionChange parse(Notification notification) {
+        received.increment();
+        try {
+            return objectMapper.readValue(notification.getParameter(), ConsumptionChange.class);
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            malformed.increment();
+            log.warn("Ignoring malformed availability notification {}: {}", notification.getParameter(), e.getMessage());
+            return null;
+        }
+    }
+
+    private void publish(ConsumptionChange change) {
+        Sinks.EmitResult result = sink.tryEmitNext(change);
+        if (result.isFailure() && result != Sinks.EmitResult.FAIL_ZERO_SUBSCRIBER) {
+            log.debug("Dropped availability change for event {} on {} at {}: {}", change.getEventId(), change.getDate(), change.getStartTime(), result);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.booking.availability;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * The current state of one counter (an event date's total, or one of its ticket types), as sent by
+ * notify_availability() when the outbox relay has seen it change.
+ * ticketTypeId is null for the total (consumption) counters; released is true when the change gave
+ * capacity back (cancellation, expiry, repair).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConsumptionChange {
+    private Long eventId;
+    private LocalDate date;
+    private LocalTime startTime;
+    private Long ticketTypeId;
+    private boolean released;
+    private List<Integer> availableShards;
+}
@@ -0,0 +1,65 @@
+package com.booking.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import lombok.Getter;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * One named, typed L1 region with its own size bound, TTLs and stats (see {@code CacheConfig}).
+ * Keys are the same strings used in Redis, so a region can be invalidated by the same pattern
+ * as its L2 entries. Values read back from Redis pass through {@link #fromRemote} once, on the
+ * L2 hit; L1 hits return the stored value as-is.
+ */
+@Getter
+public class CacheRegion<V> {
+
+    private final String name;
+    private final Cache<String, V> cache;
+    private final long localTtlSeconds;
+    private final long redisTtlSeconds;
+    private final Function<Object, V> remoteMapper;
+
+    public CacheRegion(String name, Cache<String, V> cache, long localTtlSeconds, long redisTtlSeconds,
+                       Function<Object, V> remoteMapper) {
+        this.name = name;
+        this.cache = cache;
+        this.localTtlSeconds = localTtlSeconds;
+        this.redisTtlSeconds = redisTtlSeconds;
+        this.remoteMapper = remoteMapper;
+    }
+
+    public V getIfPresent(String key) {
+        return cache.getIfPresent(key);
+    }
+
+    public void put(String key, V value) {
+        cache.put(key, value);
+    }
+
+    /**
+     * Milliseconds since the entry was written, 0 when unknown
+     */
+    public long ageMs(String key) {
+        return cache.policy().expireAfterWrite()
+                .map(expiration -> expiration.ageOf(key, TimeUnit.MILLISECONDS).orElse(0L))
+                .orElse(0L);
+    }
+
+    /**
+     * Convert a value deserialized from Redis (JSON numbers and lists) to this region's type
+     */
+    public V fromRemote(Object value) {
+        return remoteMapper.apply(value);
+    }
+
+    public void invalidateIf(Predicate<String> keyFilter) {
+        cache.asMap().keySet().removeIf(keyFilter);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+}
@@ -0,0 +1,203 @@
+package com.booking.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Circuit breaker for Redis calls on the request path (L2 cache, sold-out flags). Idempotency keys
+ * don't go through it: they can't fall back, see {@link com.booking.service.IdempotencyService}.
+ * Every call gets a latency budget for its kind of operation; a call that errors or overruns its
+ * budget counts as a failure and the caller gets its fallback. When the failure rate over the last
+ * window-size calls reaches failure-rate-threshold the breaker opens: calls return the fallback
+ * without touching Redis, so callers run on L1 and Postgres. While open, a scheduled PING probes
+ * Redis and closes the breaker on the first success after open-duration-ms.
+ */
+@Slf4j
+@Component
+public class RedisCircuitBreaker {
+
+    public enum Operation {
+        READ,
+        BATCH_READ,
+        WRITE
+    }
+
+    private enum State {
+        CLOSED,
+        OPEN
+    }
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final Map<Operation, Duration> budgets = new EnumMap<>(Operation.class);
+    private final Map<Operation, Counter> failures = new EnumMap<>(Operation.class);
+    private final Map<Operation, Counter> timeouts = new EnumMap<>(Operation.class);
+    private final Map<Operation, Counter> shortCircuited = new EnumMap<>(Operation.class);
+    private final Counter opened;
+
+    private final boolean[] window;
+    private int windowIndex;
+    private int windowCalls;
+    private int windowFailures;
+
+    private volatile State state = State.CLOSED;
+    private volatile long openedAtMillis;
+
+    @Value("${booking.redis.circuit-breaker.enabled:true}")
+    private boolean enabled;
+
+    @Value("${booking.redis.circuit-breaker.failure-rate-threshold:0.5}")
+    private double failureRateThreshold;
+
+    @Value("${booking.redis.circuit-breaker.minimum-calls:20}")
+    private int minimumCalls;
+
+    @Value("${booking.redis.circuit-breaker.open-duration-ms:5000}")
+    private long openDurationMs;
+
+    @Value("${booking.redis.circuit-breaker.probe-timeout-ms:200}")
+    private long probeTimeoutMs;
+
+    public RedisCircuitBreaker(ReactiveStringRedisTemplate redisTemplate,
+                               MeterRegistry meterRegistry,
+                               @Value("${booking.redis.circuit-breaker.window-size:100}") int windowSize,
+                               @Value("${booking.redis.circuit-breaker.budgets.read-ms:50}") long readBudgetMs,
+                               @Value("${booking.redis.circuit-breaker.budgets.batch-read-ms:100}") long batchReadBudgetMs,
+                               @Value("${booking.redis.circuit-breaker.budgets.write-ms:100}") long writeBudgetMs) {
+        this.redisTemplate = redisTemplate;
+        this.window = new boolean[windowSize];
+        budgets.put(Operation.READ, Duration.ofMillis(readBudgetMs));
+        budgets.put(Operation.BATCH_READ, Duration.ofMillis(batchReadBudgetMs));
+        budgets.put(Operation.WRITE, Duration.ofMillis(writeBudgetMs));
+
+        for (Operation operation : Operation.values()) {
+            String tag = operation.name().toLowerCase();
+            failures.put(operation, Counter.builder("redis.circuit.failures")
+                    .tag("operation", tag)
+                    .register(meterRegistry));
+            timeouts.put(operation, Counter.builder("redis.circuit.timeouts")
+                    .tag("operation", tag)
+                    .register(meterRegistry));
+            shortCircuited.put(operation, Counter.builder("redis.circuit.short_circuited")
+                    .tag("operation", tag)
+                    .register(meterRegistry));
+        }
+        this.opened = Counter.builder("redis.circuit.opened")
+                .register(meterRegistry);
+        meterRegistry.gauge("redis.circuit.open", this, breaker -> breaker.state == State.OPEN ? 1 : 0);
+    }
+
+    public boolean isOpen() {
+        return enabled && state == State.OPEN;
+    }
+
+    /**
+     * Run a Redis call within its operation's budget, or return the fallback when the breaker is
+     * open, the call fails or the budget runs out. The fallback is what the caller would do
+     * without Redis (a cache miss, "not sold out", ...), so the returned Mono never errors
+     * because of Redis.
+     */
+    public <T> Mono<T> execute(Operation operation, Supplier<Mono<T>> call, Supplier<Mono<T>> fallback) {
+        if (!enabled) {
+            return Mono.defer(call).onErrorResume(e -> Mono.defer(fallback));
+        }
+
+        return Mono.defer(() -> {
+            if (state == State.OPEN) {
+                shortCircuited.get(operation).increment();
+                return fallback.get();
+            }
+
+            return call.get()
+                    .timeout(budgets.get(operation))
+                    .doOnSuccess(v -> record(false))
+                    .onErrorResume(error -> {
+                        if (error instanceof TimeoutException) {
+                            timeouts.get(operation).increment();
+                        } else {
+                            failures.get(operation).increment();
+                        }
+                        log.debug("Redis {} failed, using fallback: {}", operation, error.toString());
+                        record(true);
+                        return fallback.get();
+                    });
+        });
+    }
+
+    /**
+     * While open, PING Redis once open-duration-ms has passed and close on success
+     */
+    @Scheduled(fixedDelayString = "${booking.redis.circuit-breaker.probe-interval-ms:1000}")
+    public void probe() {
+        if (state != State.OPEN || System.currentTimeMillis() - openedAtMillis < openDurationMs) {
+            return;
+        }
+
+        redisTemplate.execute(connection -> connection.ping())
+                .next()
+                .timeout(Duration.ofMillis(probeTimeoutMs))
+                .subscribe(
+                        pong -> close(),
+                        error -> {
+                            log.debug("Redis probe failed: {}", error.toString());
+                            openedAtMillis = System.currentTimeMillis();
+                        }
+                );
+    }
+
+    /**
+     * Start over closed with an empty window (after a CRaC restore; the old window describes another Redis connection)
+     */
+    public synchronized void reset() {
+        windowIndex = 0;
+        windowCalls = 0;
+        windowFailures = 0;
+        state = State.CLOSED;
+    }
+
+    private synchronized void record(boolean failure) {
+        if (state == State.OPEN) {
+            return;
+        }
+
+        if (windowCalls == window.length) {
+            if (window[windowIndex]) {
+                windowFailures--;
+            }
+        } else {
+            windowCalls++;
+        }
+        window[windowIndex] = failure;
+        if (failure) {
+            windowFailures++;
+        }
+        windowIndex = (windowIndex + 1) % window.length;
+
+        if (windowCalls >= minimumCalls && windowFailures >= failureRateThreshold * windowCalls) {
+            state = State.OPEN;
+            openedAtMillis = System.currentTimeMillis();
+            opened.increment();
+            log.warn("Redis circuit opened ({} of the last {} calls failed); serving from L1 and Postgres",
+                    windowFailures, windowCalls);
+        }
+    }
+
+    private synchronized void close() {
+        if (state != State.OPEN) {
+            return;
+        }
+        reset();
+        log.info("Redis circuit closed after a successful probe");
+    }
+}
@@ -0,0 +1,54 @@
+package com.booking.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.observability.micrometer.Micrometer;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Reactor schedulers for work nobody is waiting on, so it never runs on the Netty event loops that
+ * serve requests. Scheduled jobs (expiry, reconciliation, materialization, outbox relay, summary,
+ * partitions) subscribe and process their results on jobs(), and skip a tick while their previous run
+ * is still in flight, so a slow run can't pile up behind @Scheduled; cache refresh-ahead loads start on
+ * cacheRefresh(), so a refresh backlog can't hold up the jobs or the other way round.
+ * Both are bounded: a saturated scheduler queues its own work and rejects beyond queue-size.
+ * Each publishes booking.scheduler.tasks.* (submitted, active, completed, pending) tagged with its name.
+ */
+@Component
+public class BackgroundSchedulers implements DisposableBean {
+
+    private final Scheduler jobs;
+    private final Scheduler cacheRefresh;
+
+    public BackgroundSchedulers(MeterRegistry meterRegistry,
+                                @Value("${booking.schedulers.jobs.threads:4}") int jobThreads,
+                                @Value("${booking.schedulers.jobs.queue-size:1000}") int jobQueueSize,
+                                @Value("${booking.schedulers.cache-refresh.threads:2}") int refreshThreads,
+                                @Value("${booking.schedulers.cache-refresh.queue-size:10000}") int refreshQueueSize) {
+        this.jobs = timed("jobs", Schedulers.newBoundedElastic(jobThreads, jobQueueSize, "jobs"), meterRegistry);
+        this.cacheRefresh = timed("cache-refresh",
+                Schedulers.newBoundedElastic(refreshThreads, refreshQueueSize, "cache-refresh"), meterRegistry);
+    }
+
+    public Scheduler jobs() {
+        return jobs;
+    }
+
+    public Scheduler cacheRefresh() {
+        return cacheRefresh;
+    }
+
+    @Override
+    public void destroy() {
+        jobs.dispose();
+        cacheRefresh.dispose();
+    }
+
+    private static Scheduler timed(String name, Scheduler scheduler, MeterRegistry meterRegistry) {
+        return Micrometer.timedScheduler(scheduler, meterRegistry, "booking", Tags.of("scheduler", name));
+    }
+}
@@ -1,28 +1,89 @@
 package com.booking.config;
 
+import com.booking.cache.CacheRegion;
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Weigher;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 import java.time.Duration;
+import java.util.List;
+import java.util.function.Function;
 
+/**
+ * L1 cache regions. Each region is bounded by weight rather than entry count (a shard list weighs
+ * one unit per shard, scalars one unit), expires on its own TTL and publishes its own
+ * cache.gets / cache.evictions / cache.size metrics tagged with the region name, so a burst of
+ * cold keys in one region can't evict the hot entries of another.
+ */
 @Configuration
 public class CacheConfig {
 
-    @Value("${booking.cache.local.max-size:10000}")
-    private long maxSize;
+    @Value("${booking.cache.refresh-ahead.enabled:true}")
+    private boolean refreshAheadEnabled;
 
-    @Value("${booking.cache.local.ttl-seconds:2}")
-    private long ttlSeconds;
+    @Value("${booking.cache.refresh-ahead.stale-seconds:2}")
+    private long staleSeconds;
 
     @Bean
-    public Cache<String, Object> localCache() {
-        return Caffeine.newBuilder()
-                .maximumSize(maxSize)
-                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+    public CacheRegion<List<Integer>> shardAvailabilityRegion(
+            MeterRegistry meterRegistry,
+            @Value("${booking.cache.regions.shard-availability.max-weight:200000}") long maxWeight,
+            @Value("${booking.cache.regions.shard-availability.local-ttl-seconds:2}") long localTtlSeconds,
+            @Value("${booking.cache.regions.shard-availability.redis-ttl-seconds:5}") long redisTtlSeconds) {
+        return region("shard-availability", maxWeight, localTtlSeconds, redisTtlSeconds,
+                (key, shards) -> shards.size() + 1,
+                CacheConfig::toShardList,
+                meterRegistry);
+    }
+
+    @Bean
+    public CacheRegion<Integer> availabilityRegion(
+            MeterRegistry meterRegistry,
+            @Value("${booking.cache.regions.availability.max-weight:50000}") long maxWeight,
+            @Value("${booking.cache.regions.availability.local-ttl-seconds:2}") long localTtlSeconds,
+            @Value("${booking.cache.regions.availability.redis-ttl-seconds:5}") long redisTtlSeconds) {
+        return region("availability", maxWeight, localTtlSeconds, redisTtlSeconds,
+                (key, available) -> 1,
+                value -> ((Number) value).intValue(),
+                meterRegistry);
+    }
+
+    @Bean
+    public CacheRegion<Long> eventMetadataRegion(
+            MeterRegistry meterRegistry,
+            @Value("${booking.cache.regions.event-metadata.max-weight:1000}") long maxWeight,
+            @Value("${booking.cache.regions.event-metadata.local-ttl-seconds:30}") long localTtlSeconds,
+            @Value("${booking.cache.regions.event-metadata.redis-ttl-seconds:60}") long redisTtlSeconds) {
+        return region("event-metadata", maxWeight, localTtlSeconds, redisTtlSeconds,
+                (key, value) -> 1,
+                value -> ((Number) value).longValue(),
+                meterRegistry);
+    }
+
+    /**
+     * With refresh-ahead, entries outlive their TTL by stale-seconds so CacheService can serve them while refreshing
+     */
+    private <V> CacheRegion<V> region(String name, long maxWeight, long localTtlSeconds, long redisTtlSeconds,
+                                      Weigher<String, V> weigher, Function<Object, V> remoteMapper,
+                                      MeterRegistry meterRegistry) {
+        Cache<String, V> cache = Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher(weigher)
+                .expireAfterWrite(Duration.ofSeconds(refreshAheadEnabled ? localTtlSeconds + staleSeconds : localTtlSeconds))
                 .recordStats()
                 .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, name);
+        return new CacheRegion<>(name, cache, localTtlSeconds, redisTtlSeconds, remoteMapper);
+    }
+
+    private static List<Integer> toShardList(Object value) {
+        return ((List<?>) value).stream()
+                .map(shard -> ((Number) shard).intValue())
+                .toList();
     }
 }
@@ -1,25 +1,189 @@
 package com.booking.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.postgresql.PostgresqlConnectionFactoryProvider;
+import io.r2dbc.spi.ConnectionFactories;
 import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.core.io.ClassPathResource;
+import org.springframework.context.annotation.Primary;
 import org.springframework.data.r2dbc.config.EnableR2dbcAuditing;
 import org.springframework.data.r2dbc.repository.config.EnableR2dbcRepositories;
-import org.springframework.r2dbc.connection.init.ConnectionFactoryInitializer;
-import org.springframework.r2dbc.connection.init.ResourceDatabasePopulator;
 import org.springframework.transaction.ReactiveTransactionManager;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import reactor.netty.resources.LoopResources;
 
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One R2DBC pool per workload, so an expiry sweep or a burst of availability reads can only
+ * exhaust its own pool and never the connections reservation writes depend on. The primary
+ * ConnectionFactory routes on the {@link DatabaseWorkload} in the Reactor context, sending READ work
+ * to read replicas when booking.database.replicas.urls is set.
+ * Each pool publishes r2dbc.pool.* metrics tagged with its name, and can be closed and reopened
+ * around a CRaC checkpoint (see {@link ReopenableConnectionPool}).
+ */
 @Configuration
 @EnableR2dbcRepositories(basePackages = "com.booking.domain.repository")
 @EnableTransactionManagement
 @EnableR2dbcAuditing
 public class DatabaseConfig {
 
+    @Value("${spring.r2dbc.url}")
+    private String url;
+
+    @Value("${spring.r2dbc.username}")
+    private String username;
+
+    @Value("${spring.r2dbc.password}")
+    private String password;
+
+    @Value("${booking.database.prepared-statement-cache-size:256}")
+    private int preparedStatementCacheSize;
+
+    @Value("${booking.database.max-idle-time-minutes:30}")
+    private long maxIdleTimeMinutes;
+
+    @Value("${booking.database.max-acquire-time-ms:3000}")
+    private long maxAcquireTimeMs;
+
+    @Value("${booking.database.validation-query:SELECT 1}")
+    private String validationQuery;
+
+    @Value("${booking.database.pools.reservation.initial-size:10}")
+    private int reservationInitialSize;
+
+    @Value("${booking.database.pools.reservation.max-size:30}")
+    private int reservationMaxSize;
+
+    @Value("${booking.database.pools.read.initial-size:5}")
+    private int readInitialSize;
+
+    @Value("${booking.database.pools.read.max-size:15}")
+    private int readMaxSize;
+
+    @Value("${booking.database.pools.background.initial-size:1}")
+    private int backgroundInitialSize;
+
+    @Value("${booking.database.pools.background.max-size:5}")
+    private int backgroundMaxSize;
+
+    @Value("${booking.database.pools.background.io-threads:2}")
+    private int backgroundIoThreads;
+
+    @Value("${booking.database.replicas.urls:}")
+    private String replicaUrls;
+
+    @Value("${booking.database.replicas.initial-size:2}")
+    private int replicaInitialSize;
+
+    @Value("${booking.database.replicas.max-size:15}")
+    private int replicaMaxSize;
+
+    @Value("${booking.database.replicas.max-lag-ms:2000}")
+    private long replicaMaxLagMs;
+
+    @Value("${booking.database.replicas.check-timeout-ms:500}")
+    private long replicaCheckTimeoutMs;
+
+    @Bean(destroyMethod = "dispose")
+    public ReopenableConnectionPool reservationConnectionPool(MeterRegistry meterRegistry) {
+        return connectionPool(url, "reservation", meterRegistry, reservationInitialSize, reservationMaxSize);
+    }
+
+    @Bean(destroyMethod = "dispose")
+    public ReopenableConnectionPool readConnectionPool(MeterRegistry meterRegistry) {
+        return connectionPool(url, "read", meterRegistry, readInitialSize, readMaxSize);
+    }
+
+    @Bean(destroyMethod = "dispose")
+    public ReopenableConnectionPool backgroundConnectionPool(MeterRegistry meterRegistry) {
+        return connectionPool(url, "background", meterRegistry, backgroundInitialSize, backgroundMaxSize,
+                backgroundLoopResources());
+    }
+
+    /**
+     * Event loops for the background pool's connections only. The other pools share reactor-netty's
+     * global loops with the HTTP server; a job reading thousands of rows decodes them here instead.
+     */
+    @Bean(destroyMethod = "dispose")
+    public LoopResources backgroundLoopResources() {
+        return LoopResources.create("r2dbc-background", backgroundIoThreads, true);
+    }
+
+    @Bean(destroyMethod = "dispose")
+    public ReadReplicaRegistry readReplicaRegistry(MeterRegistry meterRegistry) {
+        List<String> urls = Arrays.stream(replicaUrls.split(","))
+                .map(String::trim)
+                .filter(replicaUrl -> !replicaUrl.isEmpty())
+                .toList();
+        List<ReopenableConnectionPool> pools = urls.stream()
+                .map(replicaUrl -> connectionPool(replicaUrl, "replica-" + urls.indexOf(replicaUrl), meterRegistry,
+                        replicaInitialSize, replicaMaxSize))
+                .toList();
+        return new ReadReplicaRegistry(pools, replicaMaxLagMs, replicaCheckTimeoutMs, meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public ConnectionFactory connectionFactory(
+            @Qualifier("reservationConnectionPool") ReopenableConnectionPool reservationPool,
+            @Qualifier("readConnectionPool") ReopenableConnectionPool readPool,
+            @Qualifier("backgroundConnectionPool") ReopenableConnectionPool backgroundPool,
+            ReadReplicaRegistry replicas) {
+        Map<Object, Object> targets = new HashMap<>(replicas.pools());
+        targets.put(DatabaseWorkload.RESERVATION, reservationPool);
+        targets.put(DatabaseWorkload.READ, readPool);
+        targets.put(DatabaseWorkload.BACKGROUND, backgroundPool);
+
+        WorkloadRoutingConnectionFactory routing = new WorkloadRoutingConnectionFactory(replicas, readPool);
+        routing.setTargetConnectionFactories(targets);
+        routing.setDefaultTargetConnectionFactory(reservationPool);
+        return routing;
+    }
+
     @Bean
     public ReactiveTransactionManager transactionManager(ConnectionFactory connectionFactory) {
         return new R2dbcTransactionManager(connectionFactory);
     }
+
+    private ReopenableConnectionPool connectionPool(String url, String name, MeterRegistry meterRegistry,
+                                                    int initialSize, int maxSize) {
+        return connectionPool(url, name, meterRegistry, initialSize, maxSize, null);
+    }
+
+    private ReopenableConnectionPool connectionPool(String url, String name, MeterRegistry meterRegistry,
+                                                    int initialSize, int maxSize, LoopResources loopResources) {
+        // Each connection keeps up to N server-side prepared statements, so repeated @Query
+        // statements are parsed and planned once per connection instead of on every call
+        ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .option(PostgresqlConnectionFactoryProvider.PREPARED_STATEMENT_CACHE_QUERIES, preparedStatementCacheSize)
+                .option(PostgresqlConnectionFactoryProvider.APPLICATION_NAME, "availability-tests-" + name);
+        if (loopResources != null) {
+            options.option(PostgresqlConnectionFactoryProvider.LOOP_RESOURCES, loopResources);
+        }
+        ConnectionFactory postgres = ConnectionFactories.get(options.build());
+
+        ConnectionPoolConfiguration configuration = ConnectionPoolConfiguration.builder(postgres)
+                .name(name)
+                .initialSize(initialSize)
+                .maxSize(maxSize)
+                .maxIdleTime(Duration.ofMinutes(maxIdleTimeMinutes))
+                .maxAcquireTime(Duration.ofMillis(maxAcquireTimeMs))
+                .validationQuery(validationQuery)
+                .build();
+        return new ReopenableConnectionPool(name, () -> new ConnectionPool(configuration), meterRegistry);
+    }
 }
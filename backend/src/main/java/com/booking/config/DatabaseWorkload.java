@@ -0,0 +1,21 @@
+package com.booking.config;
+
+import reactor.util.context.Context;
+
+import java.util.function.Function;
+
+/**
+ * Which R2DBC pool a reactive chain borrows connections from. Set with
+ * {@code .contextWrite(DatabaseWorkload.READ.asContext())}; untagged work uses the reservation pool.
+ */
+public enum DatabaseWorkload {
+    RESERVATION,
+    READ,
+    BACKGROUND;
+
+    static final String CONTEXT_KEY = DatabaseWorkload.class.getName();
+
+    public Function<Context, Context> asContext() {
+        return context -> context.put(CONTEXT_KEY, this);
+    }
+}
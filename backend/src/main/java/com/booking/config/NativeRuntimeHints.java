@@ -0,0 +1,97 @@
+package com.booking.config;
+
+import com.booking.availability.ConsumptionChange;
+import com.booking.controller.TestDataController;
+import com.booking.domain.entity.AvailabilitySummary;
+import com.booking.domain.entity.Consumption;
+import com.booking.domain.entity.ConsumptionTT;
+import com.booking.domain.entity.Event;
+import com.booking.domain.entity.EventDate;
+import com.booking.domain.entity.EventTicketType;
+import com.booking.domain.entity.OutboxEvent;
+import com.booking.domain.entity.Reservation;
+import com.booking.domain.entity.ReservationAllocation;
+import com.booking.domain.entity.Ticket;
+import com.booking.domain.entity.TicketType;
+import com.booking.dto.request.BatchPaymentRequest;
+import com.booking.dto.request.BulkReservationRequest;
+import com.booking.dto.request.PaymentRequest;
+import com.booking.dto.request.ReservationRequest;
+import com.booking.dto.request.TicketRequest;
+import com.booking.dto.response.AvailabilityChangeResponse;
+import com.booking.dto.response.AvailabilityResponse;
+import com.booking.dto.response.BatchConfirmationResponse;
+import com.booking.dto.response.BulkReservationResponse;
+import com.booking.dto.response.EventDetailResponse;
+import com.booking.dto.response.EventResponse;
+import com.booking.dto.response.PagedResponse;
+import com.booking.dto.response.ReservationResponse;
+import com.booking.dto.response.WaitingRoomResponse;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+/**
+ * Reflection and resource hints for the native image (mvn -Pnative native:compile).
+ * Spring's AOT pass covers beans, controller signatures and repositories; the types below are also
+ * bound by Jackson outside those paths (Redis values replayed by IdempotencyService, NOTIFY payloads,
+ * SSE events, TestDataController's nested request/response classes), and the R2DBC entities are also
+ * built by the mapping converter for custom @Query results, so they are registered explicitly.
+ */
+@Configuration(proxyBeanMethods = false)
+@ImportRuntimeHints(NativeRuntimeHints.Registrar.class)
+@RegisterReflectionForBinding({
+        // Request DTOs (Lombok @Data/@Builder, bound through the no-args constructor and setters)
+        BatchPaymentRequest.class,
+        BatchPaymentRequest.PaymentConfirmation.class,
+        BulkReservationRequest.class,
+        BulkReservationRequest.Item.class,
+        PaymentRequest.class,
+        ReservationRequest.class,
+        TicketRequest.class,
+        // Response DTOs
+        AvailabilityChangeResponse.class,
+        AvailabilityResponse.class,
+        BatchConfirmationResponse.class,
+        BatchConfirmationResponse.Item.class,
+        BulkReservationResponse.class,
+        BulkReservationResponse.Item.class,
+        EventDetailResponse.class,
+        EventResponse.class,
+        PagedResponse.class,
+        ReservationResponse.class,
+        WaitingRoomResponse.class,
+        // LISTEN/NOTIFY payload
+        ConsumptionChange.class,
+        // Test data endpoints
+        TestDataController.SeedResponse.class,
+        TestDataController.DataStats.class,
+        TestDataController.CreateEventRequest.class,
+        TestDataController.DateRequest.class
+})
+public class NativeRuntimeHints {
+
+    static class Registrar implements RuntimeHintsRegistrar {
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            // R2DBC entities: instantiated and populated by the mapping converter
+            for (Class<?> entity : new Class<?>[]{
+                    AvailabilitySummary.class, Consumption.class, ConsumptionTT.class, Event.class, EventDate.class,
+                    EventTicketType.class, OutboxEvent.class, Reservation.class, ReservationAllocation.class,
+                    Ticket.class, TicketType.class}) {
+                hints.reflection().registerType(entity,
+                        MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                        MemberCategory.INVOKE_DECLARED_METHODS,
+                        MemberCategory.DECLARED_FIELDS);
+            }
+
+            // Flyway scans the migration location at startup
+            hints.resources().registerPattern("db/migration/*.sql");
+            hints.resources().registerPattern("static/*");
+        }
+    }
+}
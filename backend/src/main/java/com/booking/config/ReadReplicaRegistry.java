@@ -0,0 +1,192 @@
+package com.booking.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.spi.ConnectionFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Read replica pools and their health. A replica serves READ work only while it answers the lag
+ * check and its replay lag is within max-lag-ms; otherwise reads fall back to the primary read pool.
+ */
+@Slf4j
+public class ReadReplicaRegistry {
+
+    // NULL (lag unknown, out of rotation) unless the WAL receiver is streaming from the primary: a
+    // disconnected replica has replayed everything it received too. While streaming, 0 when it has
+    // replayed everything it received (an idle primary doesn't make it look stale), else the age of the
+    // last replayed transaction, NULL if there is none yet. 0 on a server that isn't in recovery at all
+    // (a stand-in pointed at the primary). Reading pg_stat_wal_receiver.status needs pg_read_all_stats.
+    private static final String LAG_QUERY =
+            "SELECT CASE WHEN NOT pg_is_in_recovery() THEN 0 " +
+            "WHEN NOT EXISTS (SELECT 1 FROM pg_stat_wal_receiver WHERE status = 'streaming') THEN NULL " +
+            "WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE EXTRACT(EPOCH FROM (NOW() - pg_last_xact_replay_timestamp())) * 1000 END::BIGINT";
+
+    private final List<Replica> replicas;
+    private final Map<ConnectionFactory, Replica> replicasByPool;
+    private final long maxLagMs;
+    private final long checkTimeoutMs;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Counter fallbacks;
+
+    public ReadReplicaRegistry(List<ReopenableConnectionPool> pools, long maxLagMs, long checkTimeoutMs, MeterRegistry meterRegistry) {
+        this.replicas = IntStream.range(0, pools.size())
+                .mapToObj(i -> new Replica("replica-" + i, pools.get(i)))
+                .toList();
+        this.replicasByPool = replicas.stream()
+                .collect(Collectors.toMap(replica -> replica.pool, Function.identity()));
+        this.maxLagMs = maxLagMs;
+        this.checkTimeoutMs = checkTimeoutMs;
+        this.fallbacks = Counter.builder("database.replica.fallbacks")
+                .register(meterRegistry);
+
+        for (Replica replica : replicas) {
+            Gauge.builder("database.replica.lag", replica, r -> r.lagMs)
+                    .baseUnit("milliseconds")
+                    .tag("replica", replica.name)
+                    .register(meterRegistry);
+            Gauge.builder("database.replica.available", replica, r -> r.available ? 1 : 0)
+                    .tag("replica", replica.name)
+                    .register(meterRegistry);
+            Gauge.builder("database.replica.connections.acquired", replica,
+                            r -> r.pool.acquiredSize())
+                    .tag("replica", replica.name)
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Routing keys and pools, for the routing ConnectionFactory's target map
+     */
+    public Map<String, ConnectionFactory> pools() {
+        return replicas.stream().collect(Collectors.toMap(replica -> replica.name, replica -> replica.pool));
+    }
+
+    /**
+     * Round-robin over replicas that passed their last lag check, or null to use the primary
+     */
+    public String select() {
+        int size = replicas.size();
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get(Math.floorMod(next.getAndIncrement(), size));
+            if (replica.available) {
+                return replica.name;
+            }
+        }
+        if (size > 0) {
+            fallbacks.increment();
+        }
+        return null;
+    }
+
+    public boolean isReplica(ConnectionFactory connectionFactory) {
+        return replicasByPool.containsKey(connectionFactory);
+    }
+
+    /**
+     * Take a replica out of rotation after a failed connection; the next lag check can bring it back
+     */
+    public void markUnavailable(ConnectionFactory connectionFactory, Throwable error) {
+        Replica replica = replicasByPool.get(connectionFactory);
+        if (replica != null && replica.available) {
+            replica.available = false;
+            fallbacks.increment();
+            log.warn("Read replica {} unavailable, reading from primary: {}", replica.name, error.getMessage());
+        }
+    }
+
+    /**
+     * Scheduled task to measure replay lag on every replica
+     */
+    @Scheduled(fixedDelayString = "${booking.database.replicas.check-interval-ms:1000}")
+    public void checkReplicas() {
+        Flux.fromIterable(replicas)
+                .flatMap(this::checkReplica)
+                .subscribe();
+    }
+
+    public void dispose() {
+        replicas.forEach(replica -> replica.pool.dispose());
+    }
+
+    /**
+     * Close every replica connection (before a checkpoint)
+     */
+    public Mono<Void> close() {
+        return Flux.fromIterable(replicas)
+                .flatMap(replica -> replica.pool.close())
+                .then();
+    }
+
+    /**
+     * Reopen the replica pools after a restore; replicas stay out of rotation until their next lag check
+     */
+    public void reopen() {
+        for (Replica replica : replicas) {
+            replica.available = false;
+            replica.pool.reopen();
+        }
+    }
+
+    private Mono<Void> checkReplica(Replica replica) {
+        return Flux.usingWhen(
+                        replica.pool.create(),
+                        connection -> Flux.from(connection.createStatement(LAG_QUERY).execute())
+                                .flatMap(result -> result.map((row, metadata) -> Optional.ofNullable(row.get(0, Long.class)))),
+                        connection -> connection.close())
+                .next()
+                .timeout(Duration.ofMillis(checkTimeoutMs))
+                .doOnNext(lag -> {
+                    if (lag.isEmpty()) {
+                        if (replica.available) {
+                            log.warn("Read replica {} has no known lag (not streaming from the primary), out of rotation", replica.name);
+                        }
+                        replica.available = false;
+                        return;
+                    }
+                    long lagMs = lag.get();
+                    boolean available = lagMs <= maxLagMs;
+                    if (available != replica.available) {
+                        log.info("Read replica {} {} (lag {} ms)", replica.name, available ? "in rotation" : "lagging, out of rotation", lagMs);
+                    }
+                    replica.lagMs = lagMs;
+                    replica.available = available;
+                })
+                .onErrorResume(error -> {
+                    if (replica.available) {
+                        log.warn("Read replica {} failed its lag check: {}", replica.name, error.getMessage());
+                    }
+                    replica.available = false;
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    private static final class Replica {
+
+        private final String name;
+        private final ReopenableConnectionPool pool;
+        // Out of rotation until the first lag check passes
+        private volatile boolean available;
+        private volatile long lagMs;
+
+        private Replica(String name, ReopenableConnectionPool pool) {
+            this.name = name;
+            this.pool = pool;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.booking.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.PoolMetrics;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * An R2DBC ConnectionPool that can be closed and opened again in place. A disposed ConnectionPool
+ * can't be reused, and a CRaC checkpoint fails while sockets are open, so before a checkpoint the
+ * current pool is disposed and after restore a new one is built from the same configuration.
+ * Whoever holds this bean (the routing factory, the replica registry, the warm-up) keeps working
+ * across the swap. Publishes the same r2dbc.pool.* gauges Boot would, always for the current pool.
+ */
+@Slf4j
+public class ReopenableConnectionPool implements ConnectionFactory {
+
+    private final String name;
+    private final Supplier<ConnectionPool> factory;
+    private volatile ConnectionPool pool;
+
+    public ReopenableConnectionPool(String name, Supplier<ConnectionPool> factory, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.factory = factory;
+        this.pool = factory.get();
+
+        gauge(meterRegistry, "r2dbc.pool.acquired", PoolMetrics::acquiredSize);
+        gauge(meterRegistry, "r2dbc.pool.allocated", PoolMetrics::allocatedSize);
+        gauge(meterRegistry, "r2dbc.pool.idle", PoolMetrics::idleSize);
+        gauge(meterRegistry, "r2dbc.pool.pending", PoolMetrics::pendingAcquireSize);
+        gauge(meterRegistry, "r2dbc.pool.max.allocated", PoolMetrics::getMaxAllocatedSize);
+        gauge(meterRegistry, "r2dbc.pool.max.pending", PoolMetrics::getMaxPendingAcquireSize);
+    }
+
+    @Override
+    public Mono<Connection> create() {
+        return Mono.defer(() -> pool.create());
+    }
+
+    @Override
+    public ConnectionFactoryMetadata getMetadata() {
+        return pool.getMetadata();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Open initial-size connections in the current pool
+     */
+    public Mono<Integer> warmup() {
+        return Mono.defer(() -> pool.warmup());
+    }
+
+    public int acquiredSize() {
+        return pool.getMetrics().map(PoolMetrics::acquiredSize).orElse(0);
+    }
+
+    /**
+     * Close every connection of the current pool; the pool can be opened again with reopen()
+     */
+    public Mono<Void> close() {
+        return Mono.defer(() -> pool.disposeLater());
+    }
+
+    public synchronized void reopen() {
+        if (pool.isDisposed()) {
+            pool = factory.get();
+            log.debug("Connection pool {} reopened", name);
+        }
+    }
+
+    public void dispose() {
+        pool.dispose();
+    }
+
+    private void gauge(MeterRegistry meterRegistry, String metric, ToIntFunction<PoolMetrics> value) {
+        Gauge.builder(metric, this, p -> p.pool.getMetrics().map(value::applyAsInt).orElse(0))
+                .tag("name", name)
+                .register(meterRegistry);
+    }
+}
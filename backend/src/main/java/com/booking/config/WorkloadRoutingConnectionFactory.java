@@ -0,0 +1,51 @@
+package com.booking.config;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.r2dbc.connection.lookup.AbstractRoutingConnectionFactory;
+import reactor.core.publisher.Mono;
+
+import java.util.Optional;
+
+/**
+ * Routes on the {@link DatabaseWorkload} in the Reactor context. READ work goes to a healthy read
+ * replica when one is configured, and back to the primary read pool if the replica can't hand out
+ * a connection. Everything else stays on the primary.
+ */
+class WorkloadRoutingConnectionFactory extends AbstractRoutingConnectionFactory {
+
+    private final ReadReplicaRegistry replicas;
+    private final ConnectionFactory primaryReadPool;
+
+    WorkloadRoutingConnectionFactory(ReadReplicaRegistry replicas, ConnectionFactory primaryReadPool) {
+        this.replicas = replicas;
+        this.primaryReadPool = primaryReadPool;
+    }
+
+    @Override
+    protected Mono<Object> determineCurrentLookupKey() {
+        return Mono.deferContextual(context -> {
+            Optional<Object> workload = context.getOrEmpty(DatabaseWorkload.CONTEXT_KEY);
+            if (workload.isPresent() && workload.get() == DatabaseWorkload.READ) {
+                String replica = replicas.select();
+                return Mono.just(replica != null ? replica : DatabaseWorkload.READ);
+            }
+            return Mono.justOrEmpty(workload);
+        });
+    }
+
+    @Override
+    public Mono<Connection> create() {
+        return determineTargetConnectionFactory()
+                .flatMap(target -> {
+                    Mono<Connection> connection = Mono.from(target.create());
+                    if (!replicas.isReplica(target)) {
+                        return connection;
+                    }
+                    return connection.onErrorResume(error -> {
+                        replicas.markUnavailable(target, error);
+                        return Mono.from(primaryReadPool.create());
+                    });
+                });
+    }
+}
@@ -1,13 +1,18 @@
 package com.booking.controller;
 
+import com.booking.domain.entity.OutboxEvent;
+import com.booking.dto.response.AvailabilityChangeResponse;
 import com.booking.dto.response.EventDetailResponse;
 import com.booking.dto.response.EventResponse;
 import com.booking.dto.response.PagedResponse;
+import com.booking.outbox.ReservationEventBroker;
 import com.booking.service.EventService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.LocalDate;
@@ -19,51 +24,90 @@ import java.time.LocalDate;
 public class EventController {
 
     private final EventService eventService;
+    private final ReservationEventBroker eventBroker;
 
     /**
-     * GET /events?page=0&size=20
-     * Returns paginated list of events
+     * GET /events?cursor=...&size=20&includeTotal=true
+     * Returns a keyset-paginated list of events. Follow nextCursor for the next page.
+     * The legacy page parameter is still honoured when no cursor is given.
      */
     @GetMapping
     public Mono<PagedResponse<EventResponse>> getEvents(
-            @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "true") boolean includeTotal) {
+
+        Mono<PagedResponse<EventResponse>> pageMono;
+        if (cursor == null && page != null && page > 0) {
+            pageMono = eventService.getAllEvents(page, size)
+                    .collectList()
+                    .map(content -> PagedResponse.<EventResponse>builder()
+                            .content(content)
+                            .page(page)
+                            .size(size)
+                            .build());
+        } else {
+            pageMono = eventService.getEventsPage(cursor, size);
+        }
+
+        if (!includeTotal) {
+            return pageMono;
+        }
 
-        return eventService.getAllEvents(page, size)
-                .collectList()
-                .zipWith(eventService.countEvents())
-                .map(tuple -> PagedResponse.<EventResponse>builder()
-                        .content(tuple.getT1())
-                        .totalElements(tuple.getT2())
-                        .page(page)
-                        .size(size)
-                        .totalPages((tuple.getT2() + size - 1) / size)
-                        .build());
+        return pageMono.zipWith(eventService.countEvents())
+                .map(tuple -> {
+                    PagedResponse<EventResponse> response = tuple.getT1();
+                    response.setTotalElements(tuple.getT2());
+                    response.setTotalPages((tuple.getT2() + size - 1) / size);
+                    return response;
+                });
     }
 
     /**
-     * GET /events/{eventId}?startDate=2024-01-01&endDate=2024-12-31&page=0&size=20
-     * Returns event dates with availability
+     * GET /events/{eventId}?startDate=2024-01-01&endDate=2024-12-31&cursor=...&size=20
+     * Returns keyset-paginated event dates with availability
      */
     @GetMapping("/{eventId}")
     public Mono<PagedResponse<EventDetailResponse>> getEventDetails(
             @PathVariable Long eventId,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
-            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "20") int size) {
 
         LocalDate effectiveStartDate = startDate != null ? startDate : LocalDate.now();
         LocalDate effectiveEndDate = endDate != null ? endDate : LocalDate.now().plusYears(1);
 
-        return eventService.getEventDetails(eventId, effectiveStartDate, effectiveEndDate, page, size)
-                .collectList()
-                .map(eventDetails -> PagedResponse.<EventDetailResponse>builder()
-                        .content(eventDetails)
-                        .totalElements(eventDetails.size())
-                        .page(page)
-                        .size(size)
-                        .totalPages((eventDetails.size() + size - 1) / size)
-                        .build());
+        return eventService.getEventDetailsPage(eventId, effectiveStartDate, effectiveEndDate, cursor, size);
+    }
+
+    /**
+     * GET /events/{eventId}/changes
+     * Server-sent stream of availability changes for an event, fed by the outbox relay
+     */
+    @GetMapping(value = "/{eventId}/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<AvailabilityChangeResponse> streamChanges(@PathVariable Long eventId) {
+        return eventBroker.events()
+                .filter(event -> event.getEventId().equals(eventId))
+                .map(this::toAvailabilityChange);
+    }
+
+    private AvailabilityChangeResponse toAvailabilityChange(OutboxEvent event) {
+        int delta = switch (event.getEventType()) {
+            case RESERVATION_CREATED -> -event.getTicketCount();
+            case RESERVATION_CANCELLED, RESERVATION_EXPIRED -> event.getTicketCount();
+            case RESERVATION_CONFIRMED -> 0;
+        };
+
+        return AvailabilityChangeResponse.builder()
+                .type(event.getEventType().name())
+                .eventId(event.getEventId())
+                .date(event.getDate())
+                .startTime(event.getStartTime())
+                .reservationId(event.getReservationId())
+                .ticketDelta(delta)
+                .occurredAt(event.getCreatedAt())
+                .build();
     }
 }
@@ -1,9 +1,18 @@
 package com.booking.controller;
 
+import com.booking.admission.ReservationAdmissionLimiter;
+import com.booking.dto.request.BatchPaymentRequest;
+import com.booking.dto.request.BulkReservationRequest;
 import com.booking.dto.request.PaymentRequest;
 import com.booking.dto.request.ReservationRequest;
+import com.booking.dto.request.TicketRequest;
+import com.booking.dto.response.BatchConfirmationResponse;
+import com.booking.dto.response.BulkReservationResponse;
 import com.booking.dto.response.ReservationResponse;
+import com.booking.service.BulkReservationService;
+import com.booking.service.IdempotencyService;
 import com.booking.service.ReservationService;
+import com.booking.waitingroom.WaitingRoomService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -14,6 +23,7 @@ import reactor.core.publisher.Mono;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.List;
 
 @Slf4j
 @RestController
@@ -21,6 +31,10 @@ import java.time.LocalTime;
 public class ReservationController {
 
     private final ReservationService reservationService;
+    private final ReservationAdmissionLimiter admissionLimiter;
+    private final WaitingRoomService waitingRoomService;
+    private final IdempotencyService idempotencyService;
+    private final BulkReservationService bulkReservationService;
 
     /**
      * POST /events/{eventId}/{date}/{startTime}
@@ -32,12 +46,35 @@ public class ReservationController {
             @PathVariable Long eventId,
             @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
             @PathVariable @DateTimeFormat(pattern = "HH:mm") LocalTime startTime,
+            @RequestHeader(value = "X-Waiting-Room-Token", required = false) String waitingRoomToken,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             @Valid @RequestBody ReservationRequest request) {
 
         log.info("Creating reservation for event {} on {} at {} with {} ticket types",
                 eventId, date, startTime, request.getTickets().size());
 
-        return reservationService.createReservation(eventId, date, startTime, request.getTickets());
+        return idempotencyService.execute("create", idempotencyKey,
+                List.of(eventId, date, startTime, request), () ->
+                waitingRoomService.withAdmittedToken(eventId, date, startTime, waitingRoomToken, () ->
+                        admissionLimiter.admit(eventId, date, startTime,
+                                request.getTickets().stream().map(TicketRequest::getTicketTypeId).toList(),
+                                () -> reservationService.createReservation(eventId, date, startTime, request.getTickets())))
+        );
+    }
+
+    /**
+     * POST /reservation/bulk
+     * Reserve tickets for many event dates at once, with a result per item
+     */
+    @PostMapping("/reservation/bulk")
+    public Mono<BulkReservationResponse> createReservations(
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @Valid @RequestBody BulkReservationRequest request) {
+        log.info("Creating bulk reservation with {} items ({})", request.getItems().size(), request.getMode());
+
+        return idempotencyService.execute("bulk", idempotencyKey, List.of(request), BulkReservationResponse.class, () ->
+                bulkReservationService.createReservations(request)
+        );
     }
 
     /**
@@ -47,11 +84,37 @@ public class ReservationController {
     @PostMapping("/reservation/{reservationId}")
     public Mono<ReservationResponse> confirmPayment(
             @PathVariable Long reservationId,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             @Valid @RequestBody PaymentRequest request) {
 
         log.info("Confirming payment for reservation {} with reference {}",
                 reservationId, request.getPaymentReference());
 
-        return reservationService.confirmPayment(reservationId, request.getPaymentReference());
+        return idempotencyService.execute("confirm:" + reservationId, idempotencyKey,
+                List.of(reservationId, request), () ->
+                reservationService.confirmPayment(reservationId, request.getPaymentReference())
+        );
+    }
+
+    /**
+     * POST /reservation/batch-confirm
+     * Confirm payment for many reservations at once, with a result per reservation
+     */
+    @PostMapping("/reservation/batch-confirm")
+    public Mono<BatchConfirmationResponse> confirmPayments(@Valid @RequestBody BatchPaymentRequest request) {
+        log.info("Confirming payment for {} reservations", request.getConfirmations().size());
+
+        return reservationService.confirmPayments(request.getConfirmations());
+    }
+
+    /**
+     * DELETE /reservation/{reservationId}
+     * Cancel a pending reservation and release its tickets
+     */
+    @DeleteMapping("/reservation/{reservationId}")
+    public Mono<ReservationResponse> cancelReservation(@PathVariable Long reservationId) {
+        log.info("Cancelling reservation {}", reservationId);
+
+        return reservationService.cancelReservation(reservationId);
     }
 }
@@ -87,7 +87,7 @@ public class TestDataController {
     public Mono<String> clearAllData() {
         log.warn("Clearing all test data!");
 
-        return databaseClient.sql("TRUNCATE TABLE tickets, reservation, consumption_tt, consumption, event_ticket_type, event_date, events, ticket_type RESTART IDENTITY CASCADE")
+        return databaseClient.sql("TRUNCATE TABLE availability_delta, availability_summary, outbox_event, ticket_materialization_queue, reservation_allocation, tickets, reservation, reservation_date, consumption_tt, consumption, event_ticket_type, event_date, events, ticket_type RESTART IDENTITY CASCADE")
                 .fetch()
                 .rowsUpdated()
                 .map(count -> "All data cleared successfully");
@@ -0,0 +1,50 @@
+package com.booking.controller;
+
+import com.booking.dto.response.WaitingRoomResponse;
+import com.booking.waitingroom.WaitingRoomService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+@Slf4j
+@RestController
+@RequestMapping("/waiting-room")
+@RequiredArgsConstructor
+public class WaitingRoomController {
+
+    private final WaitingRoomService waitingRoomService;
+
+    /**
+     * POST /waiting-room/{eventId}/{date}/{startTime}
+     * Join the queue for an event date
+     */
+    @PostMapping("/{eventId}/{date}/{startTime}")
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<WaitingRoomResponse> join(
+            @PathVariable Long eventId,
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @PathVariable @DateTimeFormat(pattern = "HH:mm") LocalTime startTime) {
+
+        return waitingRoomService.join(eventId, date, startTime);
+    }
+
+    /**
+     * GET /waiting-room/{eventId}/{date}/{startTime}/{token}
+     * Poll queue position and admission state
+     */
+    @GetMapping("/{eventId}/{date}/{startTime}/{token}")
+    public Mono<WaitingRoomResponse> status(
+            @PathVariable Long eventId,
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @PathVariable @DateTimeFormat(pattern = "HH:mm") LocalTime startTime,
+            @PathVariable String token) {
+
+        return waitingRoomService.status(eventId, date, startTime, token);
+    }
+}
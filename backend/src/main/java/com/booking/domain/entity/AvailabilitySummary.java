@@ -0,0 +1,46 @@
+package com.booking.domain.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("availability_summary")
+public class AvailabilitySummary {
+
+    /**
+     * ticket_type_id of the row summarizing all ticket types
+     */
+    public static final long ALL_TICKET_TYPES = 0L;
+
+    @Column("event_id")
+    private Long eventId;
+
+    @Column("date")
+    private LocalDate date;
+
+    @Column("start_time")
+    private LocalTime startTime;
+
+    @Column("ticket_type_id")
+    private Long ticketTypeId;
+
+    @Column("total_capacity")
+    private Integer totalCapacity;
+
+    @Column("remaining")
+    private Integer remaining;
+
+    @Column("updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,70 @@
+package com.booking.domain.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("outbox_event")
+public class OutboxEvent {
+
+    @Id
+    @Column("id")
+    private Long id;
+
+    @Column("event_type")
+    private EventType eventType;
+
+    @Column("reservation_id")
+    private Long reservationId;
+
+    @Column("event_id")
+    private Long eventId;
+
+    @Column("date")
+    private LocalDate date;
+
+    @Column("start_time")
+    private LocalTime startTime;
+
+    @Column("ticket_count")
+    private Integer ticketCount;
+
+    @Column("created_at")
+    private LocalDateTime createdAt;
+
+    @Column("claimed_until")
+    private LocalDateTime claimedUntil;
+
+    public enum EventType {
+        RESERVATION_CREATED,
+        RESERVATION_CONFIRMED,
+        RESERVATION_CANCELLED,
+        RESERVATION_EXPIRED;
+
+        /**
+         * Whether this event changes the capacity held on the event date
+         */
+        public boolean changesCapacity() {
+            return this != RESERVATION_CONFIRMED;
+        }
+
+        /**
+         * Whether this event gives capacity back to the event date
+         */
+        public boolean releasesCapacity() {
+            return this == RESERVATION_CANCELLED || this == RESERVATION_EXPIRED;
+        }
+    }
+}
@@ -43,6 +43,10 @@ public class Reservation {
     @Builder.Default
     private LocalDateTime createdAt = LocalDateTime.now();
 
+    @Column("ticket_count")
+    @Builder.Default
+    private Integer ticketCount = 0;
+
     @Column("expires_at")
     private LocalDateTime expiresAt;
 
@@ -0,0 +1,28 @@
+package com.booking.domain.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("reservation_allocation")
+public class ReservationAllocation {
+
+    @Column("reservation_id")
+    private Long reservationId;
+
+    @Column("ticket_type_id")
+    private Long ticketTypeId;
+
+    @Column("shard_id")
+    private Integer shardId;
+
+    @Column("quantity")
+    private Integer quantity;
+}
@@ -0,0 +1,30 @@
+package com.booking.domain.repository;
+
+import com.booking.domain.entity.AvailabilitySummary;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+@Repository
+public interface AvailabilitySummaryRepository extends ReactiveCrudRepository<AvailabilitySummary, Long> {
+
+    @Query("SELECT * FROM availability_summary WHERE event_id = :eventId AND date = :date AND start_time = :startTime AND ticket_type_id = 0")
+    Mono<AvailabilitySummary> findTotal(Long eventId, LocalDate date, LocalTime startTime);
+
+    @Query("SELECT * FROM availability_summary WHERE event_id = :eventId AND date = :date AND start_time = :startTime AND ticket_type_id <> 0 ORDER BY ticket_type_id")
+    Flux<AvailabilitySummary> findByTicketType(Long eventId, LocalDate date, LocalTime startTime);
+
+    @Query("SELECT apply_availability_deltas(:limit)")
+    Mono<Integer> applyDeltas(int limit);
+
+    @Query("SELECT reconcile_availability_summary(:from)")
+    Mono<Integer> reconcile(LocalDate from);
+
+    @Query("SELECT COUNT(*) FROM availability_delta")
+    Mono<Long> countPendingDeltas();
+}
@@ -35,4 +35,11 @@ public interface ConsumptionRepository extends ReactiveCrudRepository<Consumptio
     Mono<Integer> getTotalAvailability(Long eventId, LocalDate date, LocalTime startTime);
 
     Flux<Consumption> findByEventIdAndDateAndStartTime(Long eventId, LocalDate date, LocalTime startTime);
+
+    /**
+     * Send the available shards of every counter of these event dates on the availability_changes channel (V15).
+     * The arrays are parallel; released marks event dates that got capacity back. Returns the notifications sent.
+     */
+    @Query("SELECT notify_availability(:eventIds, :dates, :startTimes, :released)")
+    Mono<Integer> notifyAvailability(Long[] eventIds, LocalDate[] dates, LocalTime[] startTimes, Boolean[] released);
 }
@@ -1,6 +1,7 @@
 package com.booking.domain.repository;
 
 import com.booking.domain.entity.EventDate;
+import org.springframework.data.r2dbc.repository.Modifying;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import org.springframework.stereotype.Repository;
@@ -16,11 +17,35 @@ public interface EventDateRepository extends ReactiveCrudRepository<EventDate, L
     @Query("SELECT * FROM event_date WHERE event_id = :eventId AND date >= :startDate AND date <= :endDate ORDER BY date, start_time LIMIT :limit OFFSET :offset")
     Flux<EventDate> findByEventIdAndDateRange(Long eventId, LocalDate startDate, LocalDate endDate, int limit, int offset);
 
+    @Query("SELECT * FROM event_date WHERE event_id = :eventId AND (date, start_time) > (:afterDate, :afterStartTime) " +
+           "AND date >= :startDate AND date <= :endDate ORDER BY date, start_time LIMIT :limit")
+    Flux<EventDate> findByEventIdAndDateRangeAfter(Long eventId, LocalDate startDate, LocalDate endDate,
+                                                   LocalDate afterDate, LocalTime afterStartTime, int limit);
+
     @Query("SELECT COUNT(*) FROM event_date WHERE event_id = :eventId AND date >= :startDate AND date <= :endDate")
     Mono<Long> countByEventIdAndDateRange(Long eventId, LocalDate startDate, LocalDate endDate);
 
+    @Query("SELECT * FROM event_date WHERE date >= :fromDate AND date <= :toDate ORDER BY date, start_time, event_id LIMIT :limit")
+    Flux<EventDate> findBetween(LocalDate fromDate, LocalDate toDate, int limit);
+
+    @Query("SELECT * FROM event_date WHERE date >= :fromDate ORDER BY date, start_time, event_id LIMIT :limit")
+    Flux<EventDate> findUpcoming(LocalDate fromDate, int limit);
+
+    @Query("SELECT * FROM event_date WHERE date >= :fromDate " +
+           "AND (date, start_time, event_id) > (:afterDate, :afterStartTime, :afterEventId) " +
+           "ORDER BY date, start_time, event_id LIMIT :limit")
+    Flux<EventDate> findUpcomingAfter(LocalDate fromDate, LocalDate afterDate, LocalTime afterStartTime, Long afterEventId, int limit);
+
     Flux<EventDate> findByEventId(Long eventId);
 
     @Query("SELECT * FROM event_date WHERE event_id = :eventId AND date = :date AND start_time = :startTime")
     Mono<EventDate> findByEventIdAndDateAndStartTime(Long eventId, LocalDate date, LocalTime startTime);
+
+    /**
+     * Adds an event date unless it exists; the event_date_after_insert trigger creates its shards
+     */
+    @Modifying
+    @Query("INSERT INTO event_date (event_id, date, start_time) VALUES (:eventId, :date, :startTime) " +
+           "ON CONFLICT (event_id, date, start_time) DO NOTHING")
+    Mono<Integer> insertIfAbsent(Long eventId, LocalDate date, LocalTime startTime);
 }
@@ -8,12 +8,20 @@ import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.LocalDateTime;
+
 @Repository
 public interface EventRepository extends ReactiveCrudRepository<Event, Long> {
 
-    @Query("SELECT * FROM events ORDER BY created_at DESC LIMIT :limit OFFSET :offset")
+    @Query("SELECT * FROM events ORDER BY created_at DESC, id DESC LIMIT :limit OFFSET :offset")
     Flux<Event> findAllPaginated(int limit, int offset);
 
+    @Query("SELECT * FROM events ORDER BY created_at DESC, id DESC LIMIT :limit")
+    Flux<Event> findFirstPage(int limit);
+
+    @Query("SELECT * FROM events WHERE (created_at, id) < (:createdAt, :id) ORDER BY created_at DESC, id DESC LIMIT :limit")
+    Flux<Event> findPageAfter(LocalDateTime createdAt, Long id, int limit);
+
     @Query("SELECT COUNT(*) FROM events")
     Mono<Long> countAll();
 
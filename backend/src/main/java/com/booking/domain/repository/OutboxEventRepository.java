@@ -0,0 +1,35 @@
+package com.booking.domain.repository;
+
+import com.booking.domain.entity.OutboxEvent;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+@Repository
+public interface OutboxEventRepository extends ReactiveCrudRepository<OutboxEvent, Long> {
+
+    @Modifying
+    @Query("INSERT INTO outbox_event (event_type, reservation_id, event_id, date, start_time, ticket_count) " +
+           "VALUES (:eventType, :reservationId, :eventId, :date, :startTime, :ticketCount)")
+    Mono<Integer> append(String eventType, Long reservationId, Long eventId, LocalDate date, LocalTime startTime, Integer ticketCount);
+
+    /**
+     * Lease up to :limit unclaimed (or lease-expired) rows to the calling node
+     */
+    @Query("UPDATE outbox_event SET claimed_until = NOW() + make_interval(secs => :leaseSeconds) " +
+           "WHERE id IN (" +
+           "  SELECT id FROM outbox_event WHERE claimed_until IS NULL OR claimed_until < NOW() " +
+           "  ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED" +
+           ") RETURNING *")
+    Flux<OutboxEvent> claimBatch(int limit, int leaseSeconds);
+
+    @Modifying
+    @Query("DELETE FROM outbox_event WHERE id = ANY(:ids)")
+    Mono<Integer> deleteByIds(Long[] ids);
+}
@@ -0,0 +1,49 @@
+package com.booking.domain.repository;
+
+import com.booking.domain.entity.ReservationAllocation;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Repository
+public interface ReservationAllocationRepository extends ReactiveCrudRepository<ReservationAllocation, Long> {
+
+    @Modifying
+    @Query("INSERT INTO reservation_allocation (reservation_id, ticket_type_id, shard_id, quantity) " +
+           "VALUES (:reservationId, :ticketTypeId, :shardId, :quantity) " +
+           "ON CONFLICT (reservation_id, ticket_type_id, shard_id) DO UPDATE SET quantity = reservation_allocation.quantity + EXCLUDED.quantity")
+    Mono<Integer> insertAllocation(Long reservationId, Long ticketTypeId, Integer shardId, Integer quantity);
+
+    @Query("SELECT * FROM reservation_allocation WHERE reservation_id = :reservationId")
+    Flux<ReservationAllocation> findByReservationId(Long reservationId);
+
+    @Modifying
+    @Query("INSERT INTO ticket_materialization_queue (reservation_id) VALUES (:reservationId) ON CONFLICT DO NOTHING")
+    Mono<Integer> enqueueMaterialization(Long reservationId);
+
+    /**
+     * Claim up to :limit queued reservations, write their ticket rows and dequeue them in one statement.
+     * Returns the number of reservations processed.
+     */
+    @Query("WITH batch AS (" +
+           "  DELETE FROM ticket_materialization_queue WHERE reservation_id IN (" +
+           "    SELECT reservation_id FROM ticket_materialization_queue ORDER BY enqueued_at LIMIT :limit FOR UPDATE SKIP LOCKED" +
+           "  ) RETURNING reservation_id" +
+           "), inserted AS (" +
+           "  INSERT INTO tickets (event_id, date, start_time, ticket_type_id, reservation_id, shard_id) " +
+           "  SELECT r.event_id, r.date, r.start_time, a.ticket_type_id, a.reservation_id, a.shard_id " +
+           "  FROM batch b " +
+           "  JOIN reservation_date d ON d.id = b.reservation_id " +
+           "  JOIN reservation r ON r.id = d.id AND r.date = d.date AND r.status IN ('PENDING', 'CONFIRMED') " +
+           "  JOIN reservation_allocation a ON a.reservation_id = b.reservation_id " +
+           "  CROSS JOIN LATERAL generate_series(1, a.quantity) " +
+           "  RETURNING 1" +
+           ") SELECT COUNT(*) FROM batch")
+    Mono<Long> materializeBatch(int limit);
+
+    @Query("SELECT COUNT(*) FROM ticket_materialization_queue")
+    Mono<Long> countQueued();
+}
@@ -1,7 +1,6 @@
 package com.booking.domain.repository;
 
 import com.booking.domain.entity.Reservation;
-import org.springframework.data.r2dbc.repository.Modifying;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import org.springframework.stereotype.Repository;
@@ -10,19 +9,50 @@ import reactor.core.publisher.Mono;
 
 import java.time.LocalDateTime;
 
+/**
+ * reservation is partitioned by date (V11), so every lookup by id resolves the date through
+ * reservation_date (V16) first; the executor then only touches the partition holding the row.
+ */
 @Repository
 public interface ReservationRepository extends ReactiveCrudRepository<Reservation, Long> {
 
-    @Query("SELECT * FROM reservation WHERE status = 'PENDING' AND expires_at < :now ORDER BY expires_at LIMIT :limit FOR UPDATE SKIP LOCKED")
+    @Override
+    @Query("SELECT * FROM reservation WHERE id = :id AND date = (SELECT date FROM reservation_date WHERE id = :id)")
+    Mono<Reservation> findById(Long id);
+
+    @Query("SELECT r.* FROM reservation r JOIN reservation_date d ON r.id = d.id AND r.date = d.date WHERE d.id = ANY(:ids)")
+    Flux<Reservation> findAllByIds(Long[] ids);
+
+    // No row locks: outside a transaction they'd be released on return. releasePending only moves rows
+    // that are still PENDING, so a reservation two nodes both pick up is expired once.
+    @Query("SELECT * FROM reservation WHERE status = 'PENDING' AND expires_at < :now ORDER BY expires_at LIMIT :limit")
     Flux<Reservation> findExpiredReservations(LocalDateTime now, int limit);
 
-    @Modifying
-    @Query("UPDATE reservation SET status = 'EXPIRED', updated_at = NOW() WHERE id = :id")
-    Mono<Integer> markAsExpired(Long id);
+    @Query("UPDATE reservation SET status = :status, updated_at = NOW() " +
+           "WHERE id = :id AND date = (SELECT date FROM reservation_date WHERE id = :id) AND status = 'PENDING' RETURNING *")
+    Mono<Reservation> releasePending(Long id, String status);
+
+    // Confirmation and its outbox row are one statement, so the happy path stays a single round trip
+    @Query("WITH confirmed AS (" +
+           "  UPDATE reservation SET status = 'CONFIRMED', payment_ref = :paymentRef, updated_at = NOW() " +
+           "  WHERE id = :id AND date = (SELECT date FROM reservation_date WHERE id = :id) " +
+           "  AND status = 'PENDING' AND expires_at >= :now RETURNING *" +
+           "), outbox AS (" +
+           "  INSERT INTO outbox_event (event_type, reservation_id, event_id, date, start_time, ticket_count) " +
+           "  SELECT 'RESERVATION_CONFIRMED', id, event_id, date, start_time, ticket_count FROM confirmed" +
+           ") SELECT * FROM confirmed")
+    Mono<Reservation> confirmIfPending(Long id, String paymentRef, LocalDateTime now);
 
-    @Modifying
-    @Query("UPDATE reservation SET status = 'CONFIRMED', payment_ref = :paymentRef, updated_at = NOW() WHERE id = :id AND status = 'PENDING'")
-    Mono<Integer> confirmReservation(Long id, String paymentRef);
+    @Query("WITH confirmed AS (" +
+           "  UPDATE reservation r SET status = 'CONFIRMED', payment_ref = p.payment_ref, updated_at = NOW() " +
+           "  FROM UNNEST(:ids::BIGINT[], :paymentRefs::VARCHAR[]) AS p(id, payment_ref) " +
+           "  JOIN reservation_date d ON d.id = p.id " +
+           "  WHERE r.id = p.id AND r.date = d.date AND r.status = 'PENDING' AND r.expires_at >= :now RETURNING r.*" +
+           "), outbox AS (" +
+           "  INSERT INTO outbox_event (event_type, reservation_id, event_id, date, start_time, ticket_count) " +
+           "  SELECT 'RESERVATION_CONFIRMED', id, event_id, date, start_time, ticket_count FROM confirmed" +
+           ") SELECT * FROM confirmed")
+    Flux<Reservation> confirmAllIfPending(Long[] ids, String[] paymentRefs, LocalDateTime now);
 
     Flux<Reservation> findByEventIdAndDateAndStartTime(Long eventId, java.time.LocalDate date, java.time.LocalTime startTime);
 }
@@ -0,0 +1,39 @@
+package com.booking.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchPaymentRequest {
+
+    @NotNull(message = "Confirmations list is required")
+    @NotEmpty(message = "At least one confirmation is required")
+    @Size(max = 500, message = "At most 500 confirmations per batch")
+    @Valid
+    private List<PaymentConfirmation> confirmations;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PaymentConfirmation {
+
+        @NotNull(message = "Reservation ID is required")
+        private Long reservationId;
+
+        @NotBlank(message = "Payment reference is required")
+        private String paymentReference;
+    }
+}
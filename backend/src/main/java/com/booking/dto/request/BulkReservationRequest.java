@@ -0,0 +1,59 @@
+package com.booking.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkReservationRequest {
+
+    @Builder.Default
+    private Mode mode = Mode.PARTIAL;
+
+    @NotNull(message = "Items list is required")
+    @NotEmpty(message = "At least one item is required")
+    @Size(max = 100, message = "At most 100 items per bulk reservation")
+    @Valid
+    private List<Item> items;
+
+    public enum Mode {
+        PARTIAL,
+        ALL_OR_NOTHING
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+
+        @NotNull(message = "Event ID is required")
+        private Long eventId;
+
+        @NotNull(message = "Date is required")
+        private LocalDate date;
+
+        @NotNull(message = "Start time is required")
+        private LocalTime startTime;
+
+        @NotNull(message = "Tickets list is required")
+        @NotEmpty(message = "At least one ticket type is required")
+        @Valid
+        private List<TicketRequest> tickets;
+
+        // Admitted token for this event date, required when the event is behind the waiting room
+        private String waitingRoomToken;
+    }
+}
@@ -0,0 +1,24 @@
+package com.booking.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailabilityChangeResponse {
+    private String type;
+    private Long eventId;
+    private LocalDate date;
+    private LocalTime startTime;
+    private Long reservationId;
+    private Integer ticketDelta;
+    private LocalDateTime occurredAt;
+}
@@ -0,0 +1,31 @@
+package com.booking.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchConfirmationResponse {
+    private int confirmed;
+    private int failed;
+    private List<Item> results;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        private Long reservationId;
+        private String status;
+        private Integer ticketCount;
+        private LocalDateTime expiresAt;
+        private String message;
+    }
+}
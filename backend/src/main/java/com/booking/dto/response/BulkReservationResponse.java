@@ -0,0 +1,35 @@
+package com.booking.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkReservationResponse {
+    private String mode;
+    private int succeeded;
+    private int failed;
+    private List<Item> results;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        private int index;
+        private Long eventId;
+        private LocalDate date;
+        private LocalTime startTime;
+        private String status;
+        private ReservationResponse reservation;
+        private String message;
+    }
+}
@@ -1,5 +1,6 @@
 package com.booking.dto.response;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -11,10 +12,12 @@ import java.util.List;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class PagedResponse<T> {
     private List<T> content;
-    private long totalElements;
-    private int page;
+    private Long totalElements;
+    private Integer page;
     private int size;
-    private long totalPages;
+    private Long totalPages;
+    private String nextCursor;
 }
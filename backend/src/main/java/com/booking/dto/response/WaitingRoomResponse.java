@@ -0,0 +1,18 @@
+package com.booking.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WaitingRoomResponse {
+    private String token;
+    private Long position;
+    private Long admittedUpTo;
+    private Boolean admitted;
+    private Long estimatedWaitSeconds;
+}
@@ -0,0 +1,7 @@
+package com.booking.exception;
+
+public class AdmissionRejectedException extends RuntimeException {
+    public AdmissionRejectedException(String message) {
+        super(message);
+    }
+}
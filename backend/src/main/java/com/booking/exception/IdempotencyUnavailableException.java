@@ -0,0 +1,7 @@
+package com.booking.exception;
+
+public class IdempotencyUnavailableException extends RuntimeException {
+    public IdempotencyUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
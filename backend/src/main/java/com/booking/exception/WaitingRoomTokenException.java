@@ -0,0 +1,7 @@
+package com.booking.exception;
+
+public class WaitingRoomTokenException extends RuntimeException {
+    public WaitingRoomTokenException(String message) {
+        super(message);
+    }
+}
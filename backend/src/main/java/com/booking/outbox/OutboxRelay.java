@@ -0,0 +1,136 @@
+package com.booking.outbox;
+
+import com.booking.config.BackgroundSchedulers;
+import com.booking.config.DatabaseWorkload;
+import com.booking.domain.entity.OutboxEvent;
+import com.booking.domain.repository.ConsumptionRepository;
+import com.booking.domain.repository.OutboxEventRepository;
+import com.booking.service.CacheService;
+import com.booking.sharding.SoldOutRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Relays outbox rows written by the reservation, confirmation, cancellation and expiry transactions.
+ * Rows are leased with SKIP LOCKED, handled, then deleted. A node that dies mid-batch lets the lease
+ * expire and another node re-delivers, so handlers must be idempotent (cache invalidation is).
+ * The relay is also what announces capacity changes on the availability_changes channel: one NOTIFY
+ * per touched counter per batch, so the reservation transactions themselves never NOTIFY.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OutboxRelay {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ConsumptionRepository consumptionRepository;
+    private final CacheService cacheService;
+    private final ReservationEventBroker eventBroker;
+    private final SoldOutRegistry soldOutRegistry;
+    private final BackgroundSchedulers schedulers;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Value("${booking.outbox.batch-size:200}")
+    private int batchSize;
+
+    @Value("${booking.outbox.max-batches:10}")
+    private int maxBatchesPerRun;
+
+    @Value("${booking.outbox.lease-seconds:30}")
+    private int leaseSeconds;
+
+    /**
+     * Scheduled task to relay pending outbox events
+     */
+    @Scheduled(fixedDelayString = "${booking.outbox.relay-interval-ms:200}")
+    public void relayPendingEvents() {
+        if (!running.compareAndSet(false, true)) {
+            log.debug("Previous outbox relay still running, skipping this run");
+            return;
+        }
+
+        Mono.defer(this::relayBatch)
+                .repeat(maxBatchesPerRun - 1)
+                .takeUntil(relayed -> relayed < batchSize)
+                .reduce(0, Integer::sum)
+                .subscribeOn(schedulers.jobs())
+                .contextWrite(DatabaseWorkload.BACKGROUND.asContext())
+                .doFinally(signal -> running.set(false))
+                .subscribe(
+                        relayed -> {
+                            if (relayed > 0) {
+                                log.debug("Relayed {} outbox events", relayed);
+                            }
+                        },
+                        error -> log.error("Error during outbox relay", error)
+                );
+    }
+
+    private Mono<Integer> relayBatch() {
+        return outboxEventRepository.claimBatch(batchSize, leaseSeconds)
+                .collectList()
+                // Grouping and fan-out to SSE subscribers run here, not on the driver's event loop
+                .publishOn(schedulers.jobs())
+                .flatMap(batch -> {
+                    if (batch.isEmpty()) {
+                        return Mono.just(0);
+                    }
+                    return invalidateCaches(batch)
+                            .then(clearSoldOut(batch))
+                            .then(notifyAvailability(batch))
+                            .then(Mono.fromRunnable(() -> batch.forEach(eventBroker::publish)))
+                            .then(outboxEventRepository.deleteByIds(batch.stream().map(OutboxEvent::getId).toArray(Long[]::new)))
+                            .thenReturn(batch.size());
+                });
+    }
+
+    /**
+     * One invalidation per event date touched by the batch, however many reservations changed it
+     */
+    private Mono<Void> invalidateCaches(List<OutboxEvent> batch) {
+        return Flux.fromIterable(batch)
+                .filter(event -> event.getEventType().changesCapacity())
+                .distinct(event -> event.getEventId() + ":" + event.getDate() + ":" + event.getStartTime())
+                .flatMap(event -> cacheService.invalidateEventDateCache(event.getEventId(), event.getDate(), event.getStartTime()))
+                .then();
+    }
+
+    /**
+     * Tell every node's change feed the new shard state of each event date the batch changed
+     */
+    private Mono<Void> notifyAvailability(List<OutboxEvent> batch) {
+        List<OutboxEvent> changed = batch.stream()
+                .filter(event -> event.getEventType().changesCapacity())
+                .toList();
+        if (changed.isEmpty()) {
+            return Mono.empty();
+        }
+        return consumptionRepository.notifyAvailability(
+                        changed.stream().map(OutboxEvent::getEventId).toArray(Long[]::new),
+                        changed.stream().map(OutboxEvent::getDate).toArray(LocalDate[]::new),
+                        changed.stream().map(OutboxEvent::getStartTime).toArray(LocalTime[]::new),
+                        changed.stream().map(event -> event.getEventType().releasesCapacity()).toArray(Boolean[]::new))
+                .then();
+    }
+
+    /**
+     * Expiries and cancellations give capacity back, so the event date is no longer sold out
+     */
+    private Mono<Void> clearSoldOut(List<OutboxEvent> batch) {
+        return Flux.fromIterable(batch)
+                .filter(event -> event.getEventType().releasesCapacity())
+                .distinct(event -> event.getEventId() + ":" + event.getDate() + ":" + event.getStartTime())
+                .flatMap(event -> soldOutRegistry.clear(event.getEventId(), event.getDate(), event.getStartTime()))
+                .then();
+    }
+}
@@ -0,0 +1,37 @@
+package com.booking.outbox;
+
+import com.booking.domain.entity.OutboxEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+/**
+ * In-JVM stand-in for a message broker. The outbox relay publishes relayed lifecycle events here;
+ * change streams and any local consumers subscribe. Slow subscribers drop events rather than
+ * back-pressuring the relay.
+ */
+@Slf4j
+@Component
+public class ReservationEventBroker {
+
+    private final Sinks.Many<OutboxEvent> sink = Sinks.many().multicast().directBestEffort();
+
+    @Value("${booking.outbox.local-broker.enabled:true}")
+    private boolean enabled;
+
+    public void publish(OutboxEvent event) {
+        if (!enabled) {
+            return;
+        }
+        Sinks.EmitResult result = sink.tryEmitNext(event);
+        if (result.isFailure() && result != Sinks.EmitResult.FAIL_ZERO_SUBSCRIBER) {
+            log.debug("Dropped lifecycle event {} for reservation {}: {}", event.getEventType(), event.getReservationId(), result);
+        }
+    }
+
+    public Flux<OutboxEvent> events() {
+        return sink.asFlux();
+    }
+}
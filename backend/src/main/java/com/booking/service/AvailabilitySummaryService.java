@@ -0,0 +1,101 @@
+package com.booking.service;
+
+import com.booking.config.BackgroundSchedulers;
+import com.booking.config.DatabaseWorkload;
+import com.booking.domain.repository.AvailabilitySummaryRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Maintains availability_summary (V13). Counter triggers append deltas; this folds them in batches
+ * and periodically recomputes upcoming event dates from the shard rows. Both steps share an advisory
+ * lock in the database, so they never interleave, across nodes either.
+ */
+@Slf4j
+@Service
+public class AvailabilitySummaryService {
+
+    private final AvailabilitySummaryRepository summaryRepository;
+    private final BackgroundSchedulers schedulers;
+    private final AtomicBoolean applying = new AtomicBoolean();
+    private final AtomicBoolean reconciling = new AtomicBoolean();
+    private final Counter corrections;
+    private volatile long pendingDeltas;
+
+    @Value("${booking.availability-summary.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${booking.availability-summary.max-batches:20}")
+    private int maxBatchesPerRun;
+
+    public AvailabilitySummaryService(AvailabilitySummaryRepository summaryRepository, BackgroundSchedulers schedulers,
+                                      MeterRegistry meterRegistry) {
+        this.summaryRepository = summaryRepository;
+        this.schedulers = schedulers;
+        this.corrections = Counter.builder("availability.summary.corrections")
+                .description("Summary rows reconciliation had to correct")
+                .register(meterRegistry);
+        meterRegistry.gauge("availability.summary.pending_deltas", this,
+                service -> service.pendingDeltas);
+    }
+
+    /**
+     * Scheduled task to fold pending deltas into the summary
+     */
+    @Scheduled(fixedDelayString = "${booking.availability-summary.apply-interval-ms:500}")
+    public void applyPendingDeltas() {
+        if (!applying.compareAndSet(false, true)) {
+            log.debug("Previous delta apply still running, skipping this run");
+            return;
+        }
+
+        Mono.defer(() -> summaryRepository.applyDeltas(batchSize))
+                .repeat(maxBatchesPerRun - 1)
+                .takeUntil(applied -> applied < batchSize)
+                .reduce(0, Integer::sum)
+                .then(summaryRepository.countPendingDeltas())
+                .subscribeOn(schedulers.jobs())
+                .contextWrite(DatabaseWorkload.BACKGROUND.asContext())
+                .doFinally(signal -> applying.set(false))
+                .subscribe(
+                        pending -> pendingDeltas = pending,
+                        error -> log.error("Error applying availability deltas", error)
+                );
+    }
+
+    /**
+     * Scheduled task to recompute the summary of today's and future event dates and correct drift
+     */
+    @Scheduled(
+            fixedDelayString = "${booking.availability-summary.reconcile-interval-ms:60000}",
+            initialDelayString = "${booking.availability-summary.reconcile-initial-delay-ms:30000}"
+    )
+    public void reconcile() {
+        if (!reconciling.compareAndSet(false, true)) {
+            log.debug("Previous summary reconciliation still running, skipping this run");
+            return;
+        }
+
+        summaryRepository.reconcile(LocalDate.now())
+                .subscribeOn(schedulers.jobs())
+                .contextWrite(DatabaseWorkload.BACKGROUND.asContext())
+                .doFinally(signal -> reconciling.set(false))
+                .subscribe(
+                        corrected -> {
+                            if (corrected > 0) {
+                                corrections.increment(corrected);
+                                log.warn("Availability summary drifted, corrected {} rows", corrected);
+                            }
+                        },
+                        error -> log.error("Error reconciling availability summary", error)
+                );
+    }
+}
@@ -0,0 +1,130 @@
+package com.booking.service;
+
+import com.booking.admission.ReservationAdmissionLimiter;
+import com.booking.dto.request.BulkReservationRequest;
+import com.booking.dto.request.TicketRequest;
+import com.booking.dto.response.BulkReservationResponse;
+import com.booking.dto.response.ReservationResponse;
+import com.booking.waitingroom.WaitingRoomService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Books many event dates in one request. Items for the same event date run one after another
+ * (they would only contend on the same shards), different event dates run concurrently up to
+ * booking.reservation.bulk-parallelism. Each item goes through the regular reservation path,
+ * including the waiting room: an item for a gated event claims its own admitted token.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BulkReservationService {
+
+    private final ReservationService reservationService;
+    private final ReservationAdmissionLimiter admissionLimiter;
+    private final WaitingRoomService waitingRoomService;
+
+    @Value("${booking.reservation.bulk-parallelism:4}")
+    private int bulkParallelism;
+
+    public Mono<BulkReservationResponse> createReservations(BulkReservationRequest request) {
+        List<BulkReservationRequest.Item> items = request.getItems();
+        boolean allOrNothing = request.getMode() == BulkReservationRequest.Mode.ALL_OR_NOTHING;
+        AtomicBoolean aborted = new AtomicBoolean(false);
+
+        Map<String, List<Integer>> indexesByEventDate = IntStream.range(0, items.size())
+                .boxed()
+                .collect(Collectors.groupingBy(
+                        i -> items.get(i).getEventId() + ":" + items.get(i).getDate() + ":" + items.get(i).getStartTime(),
+                        LinkedHashMap::new,
+                        Collectors.toList()
+                ));
+
+        return Flux.fromIterable(indexesByEventDate.values())
+                .flatMap(indexes -> Flux.fromIterable(indexes)
+                                .concatMap(i -> reserveItem(i, items.get(i), allOrNothing, aborted)),
+                        bulkParallelism)
+                .collectSortedList(Comparator.comparingInt(BulkReservationResponse.Item::getIndex))
+                .flatMap(results -> allOrNothing && aborted.get()
+                        ? rollBack(results)
+                        : Mono.just(results))
+                .map(results -> BulkReservationResponse.builder()
+                        .mode(request.getMode().name())
+                        .succeeded((int) results.stream().filter(r -> "SUCCEEDED".equals(r.getStatus())).count())
+                        .failed((int) results.stream().filter(r -> !"SUCCEEDED".equals(r.getStatus())).count())
+                        .results(results)
+                        .build());
+    }
+
+    private Mono<BulkReservationResponse.Item> reserveItem(int index, BulkReservationRequest.Item item,
+                                                           boolean allOrNothing, AtomicBoolean aborted) {
+        if (allOrNothing && aborted.get()) {
+            // Another item already failed; don't take capacity we'd have to give back
+            return Mono.just(toItem(index, item, "SKIPPED", null, "Skipped after an earlier item failed"));
+        }
+
+        return waitingRoomService.withAdmittedToken(item.getEventId(), item.getDate(), item.getStartTime(),
+                        item.getWaitingRoomToken(), () ->
+                        admissionLimiter.admit(item.getEventId(), item.getDate(), item.getStartTime(),
+                                item.getTickets().stream().map(TicketRequest::getTicketTypeId).toList(),
+                                () -> reservationService.createReservation(
+                                        item.getEventId(), item.getDate(), item.getStartTime(), item.getTickets())))
+                .map(reservation -> toItem(index, item, "SUCCEEDED", reservation, null))
+                .onErrorResume(error -> {
+                    log.warn("Bulk reservation item {} failed: {}", index, error.getMessage());
+                    aborted.set(true);
+                    return Mono.just(toItem(index, item, "FAILED", null, error.getMessage()));
+                });
+    }
+
+    /**
+     * Compensate an all-or-nothing batch by cancelling every reservation that did succeed
+     */
+    private Mono<List<BulkReservationResponse.Item>> rollBack(List<BulkReservationResponse.Item> results) {
+        return Flux.fromIterable(results)
+                .flatMapSequential(result -> {
+                    if (!"SUCCEEDED".equals(result.getStatus())) {
+                        return Mono.just(result);
+                    }
+                    return reservationService.cancelReservation(result.getReservation().getReservationId())
+                            .map(cancelled -> {
+                                result.setStatus("ROLLED_BACK");
+                                result.setReservation(cancelled);
+                                return result;
+                            })
+                            .onErrorResume(error -> {
+                                // Left PENDING, so expiry releases it within the reservation TTL
+                                log.error("Failed to roll back reservation {}", result.getReservation().getReservationId(), error);
+                                result.setStatus("ROLLBACK_FAILED");
+                                result.setMessage(error.getMessage());
+                                return Mono.just(result);
+                            });
+                }, bulkParallelism)
+                .collectList();
+    }
+
+    private BulkReservationResponse.Item toItem(int index, BulkReservationRequest.Item item, String status,
+                                                ReservationResponse reservation, String message) {
+        return BulkReservationResponse.Item.builder()
+                .index(index)
+                .eventId(item.getEventId())
+                .date(item.getDate())
+                .startTime(item.getStartTime())
+                .status(status)
+                .reservation(reservation)
+                .message(message)
+                .build();
+    }
+}
@@ -1,87 +1,492 @@
 package com.booking.service;
 
-import com.github.benmanes.caffeine.cache.Cache;
-import lombok.RequiredArgsConstructor;
+import com.booking.cache.CacheRegion;
+import com.booking.cache.RedisCircuitBreaker;
+import com.booking.cache.RedisCircuitBreaker.Operation;
+import com.booking.config.BackgroundSchedulers;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.context.ContextView;
 
 import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.function.Supplier;
 
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class CacheService {
 
-    private final Cache<String, Object> localCache;
+    private static final String REFRESH_LOCK_PREFIX = "refresh-lock/";
+    // Covers one reload; the lock is released as soon as the new value is stored
+    private static final Duration REFRESH_LOCK_TTL = Duration.ofSeconds(5);
+    private static final String EVENT_DATE_INDEX_PREFIX = "cache-index:";
+    // Event-date keys end in :<eventId>:<date>:<startTime>:<ticket type or total>
+    private static final Pattern EVENT_DATE_KEY =
+            Pattern.compile(":(\\d+:\\d{4}-\\d{2}-\\d{2}:\\d{2}:\\d{2}(?::\\d{2}(?:\\.\\d+)?)?):[^:]+$");
+
+    // KEYS: event-date index  Deletes every key the index lists, then the index; returns how many keys it listed
+    private static final RedisScript<Long> INVALIDATE_SCRIPT = RedisScript.of("""
+            local keys = redis.call('SMEMBERS', KEYS[1])
+            for i = 1, #keys, 500 do
+                redis.call('DEL', unpack(keys, i, math.min(i + 499, #keys)))
+            end
+            redis.call('DEL', KEYS[1])
+            return #keys
+            """, Long.class);
+
+    private final List<CacheRegion<?>> regions;
     private final ReactiveRedisTemplate<String, Object> redisTemplate;
+    private final ReactiveStringRedisTemplate stringRedisTemplate;
+    private final RedisCircuitBreaker circuitBreaker;
+    private final BackgroundSchedulers schedulers;
+    private final ConcurrentHashMap<String, Mono<Object>> inFlightLoads = new ConcurrentHashMap<>();
+    // Keys with a background refresh scheduled or running, claimed before it is subscribed
+    private final Set<String> inFlightRefreshes = ConcurrentHashMap.newKeySet();
+    private final Counter refreshAhead;
+    private final Counter refreshStale;
+
+    @Value("${booking.cache.refresh-ahead.enabled:true}")
+    private boolean refreshAheadEnabled;
+
+    @Value("${booking.cache.refresh-ahead.refresh-ratio:0.75}")
+    private double refreshRatio;
+
+    @Value("${booking.cache.refresh-ahead.stale-seconds:2}")
+    private long staleSeconds;
+
+    public CacheService(List<CacheRegion<?>> regions,
+                        ReactiveRedisTemplate<String, Object> redisTemplate,
+                        ReactiveStringRedisTemplate stringRedisTemplate,
+                        RedisCircuitBreaker circuitBreaker,
+                        BackgroundSchedulers schedulers,
+                        MeterRegistry meterRegistry) {
+        this.regions = regions;
+        this.redisTemplate = redisTemplate;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.circuitBreaker = circuitBreaker;
+        this.schedulers = schedulers;
+        this.refreshAhead = Counter.builder("cache.refreshes")
+                .tag("trigger", "ahead")
+                .register(meterRegistry);
+        this.refreshStale = Counter.builder("cache.refreshes")
+                .tag("trigger", "stale")
+                .register(meterRegistry);
+    }
 
     /**
-     * Get from two-layer cache: L1 (Caffeine) -> L2 (Redis) -> empty
+     * Read-through get with refresh-ahead: L1 region (Caffeine) -> L2 (Redis) -> loader.
+     * An entry past refresh-ratio of its TTL is still returned, and one background refresh per key
+     * reloads it; an entry past its TTL is served for up to stale-seconds more the same way
+     * (stale-while-revalidate). Only a key missing from both layers waits for the loader, and
+     * concurrent misses on one key share a single load.
      */
-    public <T> Mono<T> get(String key, Class<T> type) {
+    public <T> Mono<T> getOrLoad(CacheRegion<T> region, String key, Supplier<? extends Mono<T>> loader) {
+        if (!refreshAheadEnabled) {
+            return get(region, key)
+                    .switchIfEmpty(Mono.defer(loader)
+                            .flatMap(value -> set(region, key, value).thenReturn(value)));
+        }
+
+        return Mono.deferContextual(context -> {
+            T cached = region.getIfPresent(key);
+            if (cached != null) {
+                scheduleRefreshIfDue(region, key, region.ageMs(key), region.getLocalTtlSeconds(), loader, context);
+                return Mono.just(cached);
+            }
+
+            return getRemote(region, key)
+                    .map(remote -> {
+                        region.put(key, remote.value());
+                        scheduleRefreshIfDue(region, key, remote.ageMs(region.getRedisTtlSeconds() + staleSeconds),
+                                region.getRedisTtlSeconds(), loader, context);
+                        return remote.value();
+                    })
+                    .switchIfEmpty(Mono.defer(() -> load(region, key, loader)));
+        });
+    }
+
+    /**
+     * Batch read-through for several keys of one region. L1 hits are served locally, the rest are
+     * fetched with a single MGET (their TTLs pipelined with it), and only keys missing from both
+     * layers are passed to the loader (in one call). Loaded values are written back with
+     * {@link #setAll}, so the Redis cost is at most one round trip for the reads and one for the
+     * writes however many keys are asked for. Misses join loads already in flight for the same keys,
+     * as in getOrLoad, and hits from either layer past refresh-ratio are refreshed in the background
+     * one key at a time.
+     */
+    public <T> Mono<Map<String, T>> getAllOrLoad(CacheRegion<T> region, Collection<String> keys,
+                                                 Function<Collection<String>, Mono<Map<String, T>>> loader) {
+        return Mono.deferContextual(context -> {
+            Function<String, Supplier<Mono<T>>> keyLoader =
+                    key -> () -> loader.apply(List.of(key)).flatMap(loaded -> Mono.justOrEmpty(loaded.get(key)));
+
+            Map<String, T> found = new HashMap<>();
+            List<String> localMisses = new ArrayList<>();
+            for (String key : keys) {
+                T cached = region.getIfPresent(key);
+                if (cached == null) {
+                    localMisses.add(key);
+                    continue;
+                }
+                found.put(key, cached);
+                if (refreshAheadEnabled) {
+                    scheduleRefreshIfDue(region, key, region.ageMs(key), region.getLocalTtlSeconds(), keyLoader.apply(key), context);
+                }
+            }
+            if (localMisses.isEmpty()) {
+                return Mono.just(found);
+            }
+
+            return multiGetRemote(region, localMisses)
+                    .flatMap(remote -> {
+                        remote.forEach((key, entry) -> {
+                            region.put(key, entry.value());
+                            found.put(key, entry.value());
+                            if (refreshAheadEnabled) {
+                                scheduleRefreshIfDue(region, key, entry.ageMs(region.getRedisTtlSeconds() + staleSeconds),
+                                        region.getRedisTtlSeconds(), keyLoader.apply(key), context);
+                            }
+                        });
+
+                        List<String> misses = localMisses.stream()
+                                .filter(key -> !remote.containsKey(key))
+                                .toList();
+                        if (misses.isEmpty()) {
+                            return Mono.just(found);
+                        }
+                        return loadAll(region, misses, loader)
+                                .map(loaded -> {
+                                    found.putAll(loaded);
+                                    return found;
+                                });
+                    });
+        });
+    }
+
+    /**
+     * Get from two-layer cache: L1 region (Caffeine) -> L2 (Redis) -> empty.
+     * A slow or unavailable Redis reads as a miss (see {@link RedisCircuitBreaker}).
+     */
+    public <T> Mono<T> get(CacheRegion<T> region, String key) {
         // Try L1 cache first
-        Object cached = localCache.getIfPresent(key);
+        T cached = region.getIfPresent(key);
         if (cached != null) {
             log.debug("L1 cache hit for key: {}", key);
-            return Mono.just(type.cast(cached));
+            return Mono.just(cached);
         }
 
         // Try L2 cache (Redis)
-        return redisTemplate.opsForValue()
-                .get(key)
+        return circuitBreaker.execute(Operation.READ, () -> redisTemplate.opsForValue().get(key), Mono::empty)
+                .map(region::fromRemote)
                 .doOnNext(value -> {
                     log.debug("L2 cache hit for key: {}", key);
                     // Update L1 cache
-                    localCache.put(key, value);
-                })
-                .map(type::cast)
-                .doOnError(error -> log.warn("Redis error for key {}: {}", key, error.getMessage()));
+                    region.put(key, value);
+                });
     }
 
     /**
-     * Set value in both L1 and L2 caches
+     * Peek at the L1 region only (no I/O), returns null on miss
      */
-    public Mono<Void> set(String key, Object value, long ttlSeconds) {
+    public <T> T getLocal(CacheRegion<T> region, String key) {
+        return region.getIfPresent(key);
+    }
+
+    /**
+     * Replace an L1 entry only (no I/O), used when a node learns fresher state than Redis holds
+     */
+    public <T> void putLocal(CacheRegion<T> region, String key, T value) {
+        region.put(key, value);
+    }
+
+    /**
+     * Set value in both L1 and L2 caches, with the region's Redis TTL
+     */
+    public <T> Mono<Void> set(CacheRegion<T> region, String key, T value) {
         // Store in L1 cache
-        localCache.put(key, value);
+        region.put(key, value);
 
-        // Store in L2 cache (Redis)
-        return redisTemplate.opsForValue()
-                .set(key, value, Duration.ofSeconds(ttlSeconds))
-                .then()
-                .doOnError(error -> log.warn("Redis set error for key {}: {}", key, error.getMessage()))
-                .onErrorResume(e -> Mono.empty()); // Don't fail if Redis is down
+        // Store in L2 cache (Redis); skipped while Redis is failing, L1 still holds the value
+        return circuitBreaker.execute(Operation.WRITE,
+                () -> Mono.when(redisTemplate.opsForValue().set(key, value, redisTtl(region)), indexEventDateKeys(List.of(key))),
+                Mono::empty);
+    }
+
+    /**
+     * Set several values of one region in both layers. The SETs are issued together on the shared
+     * Lettuce connection, which writes each command without waiting for the previous reply, so the
+     * batch is pipelined into one round trip (MSET can't carry a TTL).
+     */
+    public <T> Mono<Void> setAll(CacheRegion<T> region, Map<String, T> values) {
+        if (values.isEmpty()) {
+            return Mono.empty();
+        }
+        values.forEach(region::put);
+
+        Duration ttl = redisTtl(region);
+        return circuitBreaker.execute(Operation.WRITE,
+                () -> Mono.when(
+                        Flux.fromIterable(values.entrySet())
+                                .flatMap(entry -> redisTemplate.opsForValue().set(entry.getKey(), entry.getValue(), ttl), values.size()),
+                        indexEventDateKeys(values.keySet())),
+                Mono::empty);
     }
 
     /**
-     * Invalidate cache for specific event_date (used after reservation changes)
+     * Invalidate cache for specific event_date (used after reservation changes).
+     * Redis keys are found through the event date's index set rather than a KEYS scan, and the
+     * call runs within the circuit breaker's write budget like every other cache write.
      */
     public Mono<Void> invalidateEventDateCache(Long eventId, LocalDate date, LocalTime startTime) {
-        String pattern = String.format("*:%d:%s:%s:*", eventId, date, startTime);
+        String eventDate = eventId + ":" + date + ":" + startTime;
+        String segment = ":" + eventDate + ":";
 
-        // Clear L1 cache
-        localCache.invalidateAll();
+        // Clear the matching L1 entries; other event dates stay cached. Loads in flight for them
+        // may have read the old state, so they no longer store what they return
+        regions.forEach(region -> region.invalidateIf(key -> key.contains(segment)));
+        inFlightLoads.keySet().removeIf(key -> key.contains(segment));
 
-        // Clear L2 cache by pattern
-        return redisTemplate.keys(pattern)
-                .flatMap(redisTemplate::delete)
-                .then()
-                .doOnSuccess(v -> log.debug("Invalidated cache for event {} on {} at {}", eventId, date, startTime))
-                .onErrorResume(e -> {
-                    log.warn("Redis invalidation error: {}", e.getMessage());
-                    return Mono.empty();
+        return circuitBreaker.execute(Operation.WRITE,
+                        () -> stringRedisTemplate.execute(INVALIDATE_SCRIPT, List.of(EVENT_DATE_INDEX_PREFIX + eventDate)).then(),
+                        Mono::empty)
+                .doOnSuccess(v -> log.debug("Invalidated cache for event {} on {} at {}", eventId, date, startTime));
+    }
+
+    /**
+     * Record event-date keys in their event date's index set, so invalidation can delete exactly them.
+     * The index outlives the longest-lived key written to it.
+     */
+    private Mono<Void> indexEventDateKeys(Collection<String> keys) {
+        Map<String, List<String>> keysByEventDate = new HashMap<>();
+        for (String key : keys) {
+            Matcher matcher = EVENT_DATE_KEY.matcher(key);
+            if (matcher.find()) {
+                keysByEventDate.computeIfAbsent(matcher.group(1), eventDate -> new ArrayList<>()).add(key);
+            }
+        }
+        if (keysByEventDate.isEmpty()) {
+            return Mono.empty();
+        }
+
+        Duration indexTtl = regions.stream().map(this::redisTtl).max(Duration::compareTo).orElseThrow();
+        return Flux.fromIterable(keysByEventDate.entrySet())
+                .flatMap(entry -> {
+                    String index = EVENT_DATE_INDEX_PREFIX + entry.getKey();
+                    return Mono.when(
+                            stringRedisTemplate.opsForSet().add(index, entry.getValue().toArray(String[]::new)),
+                            stringRedisTemplate.expire(index, indexTtl));
+                })
+                .then();
+    }
+
+    /**
+     * Start one background refresh when an entry has lived past refresh-ratio of its TTL.
+     * The key is claimed in inFlightRefreshes before anything is subscribed: refresh() only reaches
+     * inFlightLoads after its Redis read, and every request in between would start another one.
+     */
+    private <T> void scheduleRefreshIfDue(CacheRegion<T> region, String key, long ageMs, long layerTtlSeconds,
+                                          Supplier<? extends Mono<T>> loader, ContextView context) {
+        long ttlMs = layerTtlSeconds * 1000;
+        if (ageMs < ttlMs * refreshRatio || inFlightLoads.containsKey(key) || !inFlightRefreshes.add(key)) {
+            return;
+        }
+        (ageMs >= ttlMs ? refreshStale : refreshAhead).increment();
+
+        // Started on the cache-refresh scheduler, so the request that noticed the age doesn't pay for it
+        refresh(region, key, loader)
+                .doFinally(signal -> inFlightRefreshes.remove(key))
+                .subscribeOn(schedulers.cacheRefresh())
+                .contextWrite(context)
+                .subscribe(
+                        value -> log.debug("Refreshed cache key {} ({} ms old)", key, ageMs),
+                        error -> log.warn("Background refresh failed for key {}: {}", key, error.getMessage())
+                );
+    }
+
+    /**
+     * Refresh L1 from Redis when Redis holds a fresh copy, otherwise reload from the source
+     */
+    private <T> Mono<T> refresh(CacheRegion<T> region, String key, Supplier<? extends Mono<T>> loader) {
+        long redisTtlSeconds = region.getRedisTtlSeconds();
+        return getRemote(region, key)
+                .filter(remote -> remote.ageMs(redisTtlSeconds + staleSeconds) < redisTtlSeconds * 1000 * refreshRatio)
+                .map(remote -> {
+                    region.put(key, remote.value());
+                    return remote.value();
+                })
+                .switchIfEmpty(Mono.defer(() -> reloadUnderLock(region, key, loader)));
+    }
+
+    /**
+     * Background reload behind a short Redis lock, so only one node reloads a shared key; the others
+     * keep serving what they have until Redis holds the new value. A node that doesn't get the lock
+     * registers no load, so a foreground miss never waits on a load that isn't going to happen.
+     */
+    private <T> Mono<T> reloadUnderLock(CacheRegion<T> region, String key, Supplier<? extends Mono<T>> loader) {
+        String lockKey = REFRESH_LOCK_PREFIX + key;
+        return Mono.usingWhen(
+                circuitBreaker.execute(Operation.WRITE,
+                                () -> redisTemplate.opsForValue().setIfAbsent(lockKey, Boolean.TRUE, REFRESH_LOCK_TTL),
+                                () -> Mono.just(true))
+                        .filter(Boolean::booleanValue),
+                acquired -> load(region, key, loader),
+                acquired -> circuitBreaker.execute(Operation.WRITE, () -> redisTemplate.delete(lockKey).then(), Mono::empty));
+    }
+
+    /**
+     * Run the loader once per key and node, store the result in both layers. An invalidation of the
+     * key while it loads drops the in-flight entry: the value still answers the callers already
+     * waiting, but isn't stored, since it may have been read before the change.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> Mono<T> load(CacheRegion<T> region, String key, Supplier<? extends Mono<T>> loader) {
+        Mono<Object> shared = inFlightLoads.computeIfAbsent(key, k -> {
+            AtomicReference<Mono<Object>> self = new AtomicReference<>();
+            Mono<Object> load = Mono.defer(loader)
+                    .flatMap(value -> inFlightLoads.get(k) == self.get()
+                            ? set(region, k, value).thenReturn((Object) value)
+                            : Mono.just((Object) value))
+                    .doFinally(signal -> inFlightLoads.remove(k, self.get()))
+                    .cache();
+            self.set(load);
+            return load;
+        });
+        // Keys are region-prefixed, so a shared load always belongs to this region
+        return shared.map(value -> (T) value);
+    }
+
+    /**
+     * Batch counterpart of {@link #load}: keys already loading join that load, the rest are loaded
+     * with one loader call that is registered in inFlightLoads under each of its keys, so getOrLoad
+     * and other batches missing on them wait for it instead of loading again. A joined load that ends
+     * without a value for its key (its loader had none) counts as a miss and is loaded here.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> Mono<Map<String, T>> loadAll(CacheRegion<T> region, List<String> keys,
+                                             Function<Collection<String>, Mono<Map<String, T>>> loader) {
+        Map<String, Mono<Object>> owned = new HashMap<>();
+        Mono<Map<String, T>> batch = Mono.defer(() -> loader.apply(List.copyOf(owned.keySet())))
+                .flatMap(loaded -> {
+                    // As in load(): keys invalidated while loading are returned but not stored
+                    Map<String, T> current = new HashMap<>();
+                    loaded.forEach((key, value) -> {
+                        if (owned.containsKey(key) && inFlightLoads.get(key) == owned.get(key)) {
+                            current.put(key, value);
+                        }
+                    });
+                    return setAll(region, current).thenReturn(loaded);
+                })
+                .cache();
+
+        Map<String, Mono<Object>> loads = new HashMap<>();
+        for (String key : keys) {
+            loads.put(key, inFlightLoads.computeIfAbsent(key, k -> {
+                Mono<Object> load = batch.flatMap(loaded -> Mono.justOrEmpty((Object) loaded.get(k)))
+                        .doFinally(signal -> inFlightLoads.remove(k, owned.get(k)))
+                        .cache();
+                owned.put(k, load);
+                return load;
+            }));
+        }
+
+        // Keys are region-prefixed, so a shared load always belongs to this region
+        return Flux.fromIterable(loads.entrySet())
+                .flatMap(entry -> entry.getValue().map(value -> Map.entry(entry.getKey(), (T) value)))
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue)
+                .flatMap(found -> {
+                    List<String> missed = keys.stream()
+                            .filter(key -> !found.containsKey(key) && !owned.containsKey(key))
+                            .toList();
+                    if (missed.isEmpty()) {
+                        return Mono.just(found);
+                    }
+                    return loader.apply(missed)
+                            .flatMap(loaded -> setAll(region, loaded).thenReturn(loaded))
+                            .map(loaded -> {
+                                found.putAll(loaded);
+                                return found;
+                            });
                 });
     }
 
+    /**
+     * One MGET for the given keys, with a PTTL per key issued alongside it on the shared connection
+     * so the ages come back in the same round trip; keys Redis doesn't hold are absent from the result
+     */
+    private <T> Mono<Map<String, RemoteEntry<T>>> multiGetRemote(CacheRegion<T> region, List<String> keys) {
+        return circuitBreaker.execute(Operation.BATCH_READ,
+                        () -> Mono.zip(
+                                redisTemplate.opsForValue().multiGet(keys),
+                                Flux.fromIterable(keys)
+                                        .flatMapSequential(key -> redisTemplate.getExpire(key).defaultIfEmpty(Duration.ZERO), keys.size())
+                                        .collectList()
+                        ),
+                        Mono::empty)
+                .map(tuple -> {
+                    List<Object> values = tuple.getT1();
+                    List<Duration> remaining = tuple.getT2();
+                    Map<String, RemoteEntry<T>> found = new HashMap<>();
+                    for (int i = 0; i < keys.size() && i < values.size() && i < remaining.size(); i++) {
+                        if (values.get(i) != null) {
+                            found.put(keys.get(i), new RemoteEntry<>(region.fromRemote(values.get(i)), remaining.get(i)));
+                        }
+                    }
+                    return found;
+                })
+                .defaultIfEmpty(Map.of());
+    }
+
+    private Duration redisTtl(CacheRegion<?> region) {
+        long ttlSeconds = region.getRedisTtlSeconds();
+        return Duration.ofSeconds(refreshAheadEnabled ? ttlSeconds + staleSeconds : ttlSeconds);
+    }
+
+    private <T> Mono<RemoteEntry<T>> getRemote(CacheRegion<T> region, String key) {
+        return circuitBreaker.execute(Operation.READ,
+                        () -> Mono.zip(
+                                redisTemplate.opsForValue().get(key),
+                                redisTemplate.getExpire(key).defaultIfEmpty(Duration.ZERO)
+                        ),
+                        Mono::empty)
+                .map(tuple -> new RemoteEntry<>(region.fromRemote(tuple.getT1()), tuple.getT2()));
+    }
+
+    /**
+     * A Redis value with its remaining TTL; keys are written with TTL + stale-seconds
+     */
+    private record RemoteEntry<T>(T value, Duration remaining) {
+
+        long ageMs(long writtenTtlSeconds) {
+            // Negative remaining means no expiry set; treat as just written
+            return remaining.isNegative() ? 0 : Math.max(0, writtenTtlSeconds * 1000 - remaining.toMillis());
+        }
+    }
+
     /**
      * Clear all caches
      */
     public Mono<Void> clearAll() {
-        localCache.invalidateAll();
+        regions.forEach(CacheRegion::invalidateAll);
         return redisTemplate.execute(connection -> connection.serverCommands().flushDb())
                 .then()
                 .onErrorResume(e -> Mono.empty());
@@ -0,0 +1,109 @@
+package com.booking.service;
+
+import com.booking.domain.entity.OutboxEvent;
+import com.booking.domain.entity.Reservation;
+import com.booking.domain.entity.ReservationAllocation;
+import com.booking.domain.repository.ConsumptionRepository;
+import com.booking.domain.repository.ConsumptionTTRepository;
+import com.booking.domain.repository.OutboxEventRepository;
+import com.booking.domain.repository.ReservationAllocationRepository;
+import com.booking.domain.repository.ReservationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Releases the capacity held by a PENDING reservation, shared by expiry and cancellation.
+ * The outbox row for the release is written in the same transaction.
+ * The status flip is conditional on PENDING, so a reservation is only ever released once
+ * even when expiry and cancellation race.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CapacityReleaseService {
+
+    private final ReservationRepository reservationRepository;
+    private final ReservationAllocationRepository allocationRepository;
+    private final OutboxEventRepository outboxEventRepository;
+    private final ConsumptionRepository consumptionRepository;
+    private final ConsumptionTTRepository consumptionTTRepository;
+
+    /**
+     * Move a PENDING reservation to the given status and restore its counters in one transaction.
+     * Completes empty if the reservation is missing or no longer PENDING.
+     */
+    @Transactional
+    public Mono<ReleasedReservation> releasePending(Long reservationId, Reservation.ReservationStatus newStatus) {
+        OutboxEvent.EventType eventType = newStatus == Reservation.ReservationStatus.EXPIRED
+                ? OutboxEvent.EventType.RESERVATION_EXPIRED
+                : OutboxEvent.EventType.RESERVATION_CANCELLED;
+
+        return reservationRepository.releasePending(reservationId, newStatus.name())
+                .flatMap(reservation ->
+                    restoreCounters(reservation)
+                            .flatMap(ticketCount -> outboxEventRepository.append(
+                                            eventType.name(), reservation.getId(), reservation.getEventId(),
+                                            reservation.getDate(), reservation.getStartTime(), ticketCount)
+                                    .thenReturn(new ReleasedReservation(reservation, ticketCount)))
+                );
+    }
+
+    /**
+     * Restore consumption counters using the shard_id recorded in the reservation's allocations,
+     * returns the ticket count. Allocations exist from commit, so this works before tickets are materialized.
+     */
+    public Mono<Integer> restoreCounters(Reservation reservation) {
+        return allocationRepository.findByReservationId(reservation.getId())
+                .collectList()
+                .flatMap(allocations -> restoreTotalCounters(reservation, allocations)
+                        .then(restoreTicketTypeCounters(reservation, allocations))
+                        .thenReturn(allocations.stream().mapToInt(ReservationAllocation::getQuantity).sum()));
+    }
+
+    private Mono<Void> restoreTotalCounters(Reservation reservation, List<ReservationAllocation> allocations) {
+        return Mono.when(
+                allocations.stream()
+                        .collect(Collectors.groupingBy(ReservationAllocation::getShardId,
+                                Collectors.summingInt(ReservationAllocation::getQuantity)))
+                        .entrySet()
+                        .stream()
+                        .map(entry ->
+                                consumptionRepository.decrementShardCurrent(
+                                        reservation.getEventId(),
+                                        reservation.getDate(),
+                                        reservation.getStartTime(),
+                                        entry.getKey(),
+                                        entry.getValue()
+                                )
+                        )
+                        .toList()
+        );
+    }
+
+    private Mono<Void> restoreTicketTypeCounters(Reservation reservation, List<ReservationAllocation> allocations) {
+        // Allocations are already one row per (ticket_type_id, shard_id)
+        return Mono.when(
+                allocations.stream()
+                        .map(allocation ->
+                                consumptionTTRepository.decrementShardCurrent(
+                                        reservation.getEventId(),
+                                        reservation.getDate(),
+                                        reservation.getStartTime(),
+                                        allocation.getTicketTypeId(),
+                                        allocation.getShardId(),
+                                        allocation.getQuantity()
+                                )
+                        )
+                        .toList()
+        );
+    }
+
+    public record ReleasedReservation(Reservation reservation, int ticketCount) {
+    }
+}
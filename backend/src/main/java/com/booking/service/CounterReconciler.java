@@ -0,0 +1,147 @@
+package com.booking.service;
+
+import com.booking.config.BackgroundSchedulers;
+import com.booking.config.DatabaseWorkload;
+import com.booking.domain.entity.EventDate;
+import com.booking.domain.repository.EventDateRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Walks upcoming event dates a few at a time and compares every shard counter with the allocations of
+ * PENDING and CONFIRMED reservations (V14). Each event date is one short transaction; a repair only
+ * lands if the counter hasn't moved since it was read, so live reservations are never overwritten.
+ * When the walk reaches the last event date it starts again from today.
+ */
+@Slf4j
+@Service
+public class CounterReconciler {
+
+    private final EventDateRepository eventDateRepository;
+    private final DatabaseClient databaseClient;
+    private final MeterRegistry meterRegistry;
+    private final BackgroundSchedulers schedulers;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final Counter eventDatesChecked;
+
+    @Value("${booking.reconciliation.enabled:true}")
+    private boolean enabled;
+
+    @Value("${booking.reconciliation.repair:true}")
+    private boolean repair;
+
+    @Value("${booking.reconciliation.event-dates-per-run:20}")
+    private int eventDatesPerRun;
+
+    // Last event date checked by this node; null restarts the walk
+    private volatile EventDate cursor;
+
+    public CounterReconciler(EventDateRepository eventDateRepository, DatabaseClient databaseClient,
+                             BackgroundSchedulers schedulers, MeterRegistry meterRegistry) {
+        this.eventDateRepository = eventDateRepository;
+        this.databaseClient = databaseClient;
+        this.schedulers = schedulers;
+        this.meterRegistry = meterRegistry;
+        this.eventDatesChecked = Counter.builder("counter.reconciliation.event_dates")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Scheduled task to reconcile the next batch of event dates
+     */
+    @Scheduled(
+            fixedDelayString = "${booking.reconciliation.interval-ms:5000}",
+            initialDelayString = "${booking.reconciliation.initial-delay-ms:60000}"
+    )
+    public void reconcileNextEventDates() {
+        if (!enabled) {
+            return;
+        }
+
+        if (!running.compareAndSet(false, true)) {
+            log.debug("Previous counter reconciliation still running, skipping this run");
+            return;
+        }
+
+        LocalDate today = LocalDate.now();
+        EventDate after = cursor;
+        Flux<EventDate> batch = after == null || after.getDate().isBefore(today)
+                ? eventDateRepository.findUpcoming(today, eventDatesPerRun)
+                : eventDateRepository.findUpcomingAfter(today, after.getDate(), after.getStartTime(), after.getEventId(), eventDatesPerRun);
+
+        batch.concatMap(eventDate -> reconcile(eventDate).thenReturn(eventDate))
+                .collectList()
+                .subscribeOn(schedulers.jobs())
+                .contextWrite(DatabaseWorkload.BACKGROUND.asContext())
+                .doFinally(signal -> running.set(false))
+                .subscribe(
+                        checked -> cursor = checked.size() < eventDatesPerRun ? null : checked.get(checked.size() - 1),
+                        error -> log.error("Error during counter reconciliation", error)
+                );
+    }
+
+    private Mono<Void> reconcile(EventDate eventDate) {
+        return databaseClient.sql("SELECT * FROM reconcile_event_date_counters(:eventId, :date, :startTime, :repair)")
+                .bind("eventId", eventDate.getEventId())
+                .bind("date", eventDate.getDate())
+                .bind("startTime", eventDate.getStartTime())
+                .bind("repair", repair)
+                .map(row -> new ShardDrift(
+                        row.get("ticket_type_id", Long.class),
+                        row.get("shard_id", Integer.class),
+                        row.get("observed", Integer.class),
+                        row.get("expected", Integer.class),
+                        Boolean.TRUE.equals(row.get("repaired", Boolean.class))))
+                .all()
+                .collectList()
+                .publishOn(schedulers.jobs())
+                .doOnNext(drifts -> {
+                    eventDatesChecked.increment();
+                    report(eventDate, drifts);
+                })
+                .filter(drifts -> drifts.stream().anyMatch(ShardDrift::repaired))
+                // Repairs don't go through the outbox, so announce the corrected shard state here
+                .flatMap(drifts -> databaseClient.sql("SELECT notify_availability(:eventIds, :dates, :startTimes, :released)")
+                        .bind("eventIds", new Long[]{eventDate.getEventId()})
+                        .bind("dates", new LocalDate[]{eventDate.getDate()})
+                        .bind("startTimes", new LocalTime[]{eventDate.getStartTime()})
+                        .bind("released", new Boolean[]{drifts.stream().anyMatch(drift -> drift.repaired() && drift.observed() > drift.expected())})
+                        .then())
+                .then();
+    }
+
+    private void report(EventDate eventDate, List<ShardDrift> drifts) {
+        for (ShardDrift drift : drifts) {
+            String table = drift.ticketTypeId() == null ? "consumption" : "consumption_tt";
+            // over: counter above what reservations hold (false sell-outs); under: below it (oversell risk)
+            String direction = drift.observed() > drift.expected() ? "over" : "under";
+
+            meterRegistry.counter("counter.reconciliation.discrepancies", "table", table, "direction", direction).increment();
+            meterRegistry.counter("counter.reconciliation.drift_tickets", "table", table, "direction", direction)
+                    .increment(Math.abs(drift.observed() - drift.expected()));
+            if (drift.repaired()) {
+                meterRegistry.counter("counter.reconciliation.repairs", "table", table).increment();
+            }
+
+            log.warn("Counter drift for event {} on {} at {}: {} shard {}{} holds {}, reservations hold {}{}",
+                    eventDate.getEventId(), eventDate.getDate(), eventDate.getStartTime(), table, drift.shardId(),
+                    drift.ticketTypeId() == null ? "" : " (ticket type " + drift.ticketTypeId() + ")",
+                    drift.observed(), drift.expected(), drift.repaired() ? ", repaired" : "");
+        }
+    }
+
+    private record ShardDrift(Long ticketTypeId, Integer shardId, Integer observed, Integer expected, boolean repaired) {
+    }
+}
@@ -1,7 +1,11 @@
 package com.booking.service;
 
+import com.booking.cache.CacheRegion;
+import com.booking.config.DatabaseWorkload;
+import com.booking.domain.entity.AvailabilitySummary;
 import com.booking.domain.entity.Event;
 import com.booking.domain.entity.EventDate;
+import com.booking.domain.repository.AvailabilitySummaryRepository;
 import com.booking.domain.repository.ConsumptionRepository;
 import com.booking.domain.repository.ConsumptionTTRepository;
 import com.booking.domain.repository.EventDateRepository;
@@ -9,6 +13,9 @@ import com.booking.domain.repository.EventRepository;
 import com.booking.dto.response.AvailabilityResponse;
 import com.booking.dto.response.EventDetailResponse;
 import com.booking.dto.response.EventResponse;
+import com.booking.dto.response.PagedResponse;
+import com.booking.exception.InvalidCursorException;
+import com.booking.pagination.PageCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -16,6 +23,12 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 @Slf4j
 @Service
@@ -26,55 +39,138 @@ public class EventService {
     private final EventDateRepository eventDateRepository;
     private final ConsumptionRepository consumptionRepository;
     private final ConsumptionTTRepository consumptionTTRepository;
+    private final AvailabilitySummaryRepository availabilitySummaryRepository;
+    private final CacheService cacheService;
+    private final CacheRegion<Long> eventMetadataRegion;
+    private final CacheRegion<Integer> availabilityRegion;
+
+    private static final String EVENT_COUNT_CACHE_KEY = "event:count";
 
     /**
-     * Get all events (paginated)
+     * Get all events (offset-paginated, kept for legacy page-number clients)
      */
     public Flux<EventResponse> getAllEvents(int page, int size) {
         int offset = page * size;
         return eventRepository.findAllPaginated(size, offset)
-                .map(this::toEventResponse);
+                .map(this::toEventResponse)
+                .contextWrite(DatabaseWorkload.READ.asContext());
+    }
+
+    /**
+     * Get a page of events using keyset pagination on (created_at, id).
+     * Each page costs the same index seek regardless of how deep the cursor is.
+     */
+    public Mono<PagedResponse<EventResponse>> getEventsPage(String cursor, int size) {
+        Flux<Event> events;
+        if (cursor == null) {
+            events = eventRepository.findFirstPage(size + 1);
+        } else {
+            String[] keys = PageCursor.decode(cursor, 2);
+            try {
+                events = eventRepository.findPageAfter(LocalDateTime.parse(keys[0]), Long.parseLong(keys[1]), size + 1);
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new InvalidCursorException("Malformed cursor");
+            }
+        }
+
+        return events.collectList()
+                .map(rows -> {
+                    boolean hasNext = rows.size() > size;
+                    List<Event> pageRows = hasNext ? rows.subList(0, size) : rows;
+                    Event last = hasNext ? pageRows.get(pageRows.size() - 1) : null;
+
+                    return PagedResponse.<EventResponse>builder()
+                            .content(pageRows.stream().map(this::toEventResponse).toList())
+                            .size(size)
+                            .nextCursor(last != null ? PageCursor.encode(last.getCreatedAt(), last.getId()) : null)
+                            .build();
+                })
+                .contextWrite(DatabaseWorkload.READ.asContext());
     }
 
     /**
-     * Get total count of events
+     * Get total count of events (cached for the event-metadata TTL, so listings don't run COUNT(*) per page)
      */
     public Mono<Long> countEvents() {
-        return eventRepository.countAll();
+        return cacheService.getOrLoad(eventMetadataRegion, EVENT_COUNT_CACHE_KEY, eventRepository::countAll)
+                .contextWrite(DatabaseWorkload.READ.asContext());
     }
 
     /**
-     * Get event details with dates and availability
+     * Get event dates with availability using keyset pagination on (date, start_time)
      */
-    public Flux<EventDetailResponse> getEventDetails(
+    public Mono<PagedResponse<EventDetailResponse>> getEventDetailsPage(
             Long eventId,
             LocalDate startDate,
             LocalDate endDate,
-            int page,
+            String cursor,
             int size) {
 
-        int offset = page * size;
+        Flux<EventDate> eventDates;
+        if (cursor == null) {
+            eventDates = eventDateRepository.findByEventIdAndDateRange(eventId, startDate, endDate, size + 1, 0);
+        } else {
+            String[] keys = PageCursor.decode(cursor, 2);
+            try {
+                eventDates = eventDateRepository.findByEventIdAndDateRangeAfter(
+                        eventId, startDate, endDate, LocalDate.parse(keys[0]), LocalTime.parse(keys[1]), size + 1);
+            } catch (DateTimeParseException e) {
+                throw new InvalidCursorException("Malformed cursor");
+            }
+        }
 
-        return eventDateRepository.findByEventIdAndDateRange(eventId, startDate, endDate, size, offset)
-                .flatMap(eventDate ->
-                    getAvailabilityForEventDate(eventDate)
-                            .map(availability -> toEventDetailResponse(eventDate, availability))
-                );
+        return eventDates.collectList()
+                .flatMap(rows -> {
+                    boolean hasNext = rows.size() > size;
+                    List<EventDate> pageRows = hasNext ? rows.subList(0, size) : rows;
+                    EventDate last = hasNext ? pageRows.get(pageRows.size() - 1) : null;
+
+                    return getAvailabilityForEventDates(pageRows)
+                            .map(availableByKey -> pageRows.stream()
+                                    .map(eventDate -> toEventDetailResponse(eventDate, AvailabilityResponse.builder()
+                                            .totalAvailable(availableByKey.getOrDefault(availabilityCacheKey(eventDate), 0))
+                                            .build()))
+                                    .toList())
+                            .map(content -> PagedResponse.<EventDetailResponse>builder()
+                                    .content(content)
+                                    .size(size)
+                                    .nextCursor(last != null ? PageCursor.encode(last.getDate(), last.getStartTime()) : null)
+                                    .build());
+                })
+                .contextWrite(DatabaseWorkload.READ.asContext());
     }
 
     /**
-     * Get availability for a specific event date
+     * Remaining tickets for a page of event dates, keyed by availability cache key. Cached totals come
+     * from L1 or a single MGET; the rest from the availability summary (one primary key lookup each),
+     * summing the shard rows only for event dates the summary hasn't picked up yet.
      */
-    private Mono<AvailabilityResponse> getAvailabilityForEventDate(EventDate eventDate) {
-        Mono<Integer> totalAvailable = consumptionRepository
-                .getTotalAvailability(eventDate.getEventId(), eventDate.getDate(), eventDate.getStartTime())
+    private Mono<Map<String, Integer>> getAvailabilityForEventDates(List<EventDate> eventDates) {
+        Map<String, EventDate> eventDateByKey = new LinkedHashMap<>();
+        eventDates.forEach(eventDate -> eventDateByKey.put(availabilityCacheKey(eventDate), eventDate));
+
+        return cacheService.getAllOrLoad(availabilityRegion, eventDateByKey.keySet(), missing ->
+                Flux.fromIterable(missing)
+                        .flatMap(key -> loadAvailability(eventDateByKey.get(key))
+                                .map(available -> Map.entry(key, available)))
+                        .collectMap(Map.Entry::getKey, Map.Entry::getValue));
+    }
+
+    private Mono<Integer> loadAvailability(EventDate eventDate) {
+        return availabilitySummaryRepository
+                .findTotal(eventDate.getEventId(), eventDate.getDate(), eventDate.getStartTime())
+                .map(AvailabilitySummary::getRemaining)
+                .switchIfEmpty(Mono.defer(() -> consumptionRepository
+                        .getTotalAvailability(eventDate.getEventId(), eventDate.getDate(), eventDate.getStartTime())))
                 .defaultIfEmpty(0);
+    }
 
-        return totalAvailable.map(available ->
-                AvailabilityResponse.builder()
-                        .totalAvailable(available)
-                        .build()
-        );
+    /**
+     * Keyed like the shard lists, so event-date invalidation clears it
+     */
+    private String availabilityCacheKey(EventDate eventDate) {
+        return String.format("availability:%d:%s:%s:total",
+                eventDate.getEventId(), eventDate.getDate(), eventDate.getStartTime());
     }
 
     private EventResponse toEventResponse(Event event) {
@@ -1,19 +1,17 @@
 package com.booking.service;
 
-import com.booking.domain.repository.ConsumptionRepository;
-import com.booking.domain.repository.ConsumptionTTRepository;
+import com.booking.config.BackgroundSchedulers;
+import com.booking.config.DatabaseWorkload;
+import com.booking.domain.entity.Reservation;
 import com.booking.domain.repository.ReservationRepository;
-import com.booking.domain.repository.TicketRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 import reactor.core.publisher.Mono;
 
 import java.time.LocalDateTime;
-import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @Slf4j
 @Service
@@ -21,22 +19,29 @@ import java.util.stream.Collectors;
 public class ExpiryService {
 
     private final ReservationRepository reservationRepository;
-    private final TicketRepository ticketRepository;
-    private final ConsumptionRepository consumptionRepository;
-    private final ConsumptionTTRepository consumptionTTRepository;
-    private final CacheService cacheService;
+    private final CapacityReleaseService capacityReleaseService;
+    private final BackgroundSchedulers schedulers;
+    private final AtomicBoolean running = new AtomicBoolean();
 
     /**
-     * Scheduled task to cleanup expired reservations
-     * Runs every 10 seconds
+     * Scheduled task to cleanup expired reservations, on the jobs scheduler
      */
-    @Scheduled(fixedDelay = 10000, initialDelay = 30000)
+    @Scheduled(fixedDelayString = "${booking.expiry.fixed-delay:10000}", initialDelayString = "${booking.expiry.initial-delay:30000}")
     public void cleanupExpiredReservations() {
+        if (!running.compareAndSet(false, true)) {
+            log.debug("Previous expiry cleanup still running, skipping this run");
+            return;
+        }
+
         log.debug("Running expired reservation cleanup");
 
         reservationRepository.findExpiredReservations(LocalDateTime.now(), 100)
+                .publishOn(schedulers.jobs())
                 .flatMap(this::expireReservation)
                 .collectList()
+                .subscribeOn(schedulers.jobs())
+                .contextWrite(DatabaseWorkload.BACKGROUND.asContext())
+                .doFinally(signal -> running.set(false))
                 .subscribe(
                         expired -> {
                             if (!expired.isEmpty()) {
@@ -48,77 +53,13 @@ public class ExpiryService {
     }
 
     /**
-     * Expire a single reservation and restore counters
+     * Expire a single reservation and restore counters; cache invalidation follows via the outbox
+     * (completes empty if the reservation was confirmed or cancelled in the meantime)
      */
-    @Transactional
-    public Mono<Long> expireReservation(com.booking.domain.entity.Reservation reservation) {
+    public Mono<Long> expireReservation(Reservation reservation) {
         log.info("Expiring reservation {}", reservation.getId());
 
-        return ticketRepository.findByReservationId(reservation.getId())
-                .collectList()
-                .flatMap(tickets -> {
-                    // Group tickets by (ticket_type_id, shard_id) to restore counters efficiently
-                    Map<String, Integer> totalCountsByTicketType = tickets.stream()
-                            .collect(Collectors.groupingBy(
-                                    ticket -> ticket.getTicketTypeId() + ":" + ticket.getShardId(),
-                                    Collectors.summingInt(ticket -> 1)
-                            ));
-
-                    // Restore consumption counters
-                    return Mono.when(
-                            tickets.stream()
-                                    .collect(Collectors.groupingBy(
-                                            ticket -> ticket.getShardId(),
-                                            Collectors.summingInt(ticket -> 1)
-                                    ))
-                                    .entrySet()
-                                    .stream()
-                                    .map(entry ->
-                                            consumptionRepository.decrementShardCurrent(
-                                                    reservation.getEventId(),
-                                                    reservation.getDate(),
-                                                    reservation.getStartTime(),
-                                                    entry.getKey(),
-                                                    entry.getValue()
-                                            )
-                                    )
-                                    .toList()
-                    )
-                    .then(
-                            Mono.when(
-                                    tickets.stream()
-                                            .collect(Collectors.groupingBy(
-                                                    ticket -> ticket.getTicketTypeId() + ":" + ticket.getShardId()
-                                            ))
-                                            .entrySet()
-                                            .stream()
-                                            .map(entry -> {
-                                                String[] parts = entry.getKey().split(":");
-                                                Long ticketTypeId = Long.parseLong(parts[0]);
-                                                Integer shardId = Integer.parseInt(parts[1]);
-                                                int quantity = entry.getValue().size();
-
-                                                return consumptionTTRepository.decrementShardCurrent(
-                                                        reservation.getEventId(),
-                                                        reservation.getDate(),
-                                                        reservation.getStartTime(),
-                                                        ticketTypeId,
-                                                        shardId,
-                                                        quantity
-                                                );
-                                            })
-                                            .toList()
-                            )
-                    );
-                })
-                .then(reservationRepository.markAsExpired(reservation.getId()))
-                .map(Long::valueOf)
-                .doOnSuccess(v ->
-                        cacheService.invalidateEventDateCache(
-                                reservation.getEventId(),
-                                reservation.getDate(),
-                                reservation.getStartTime()
-                        ).subscribe()
-                );
+        return capacityReleaseService.releasePending(reservation.getId(), Reservation.ReservationStatus.EXPIRED)
+                .map(released -> 1L);
     }
 }
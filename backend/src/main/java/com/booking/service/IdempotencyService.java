@@ -0,0 +1,160 @@
+package com.booking.service;
+
+import com.booking.dto.response.ReservationResponse;
+import com.booking.exception.IdempotencyConflictException;
+import com.booking.exception.IdempotencyKeyReusedException;
+import com.booking.exception.IdempotencyUnavailableException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Idempotency-Key handling for reservation writes.
+ * Concurrent duplicates on this node share the in-flight Mono; duplicates on other nodes
+ * see an in-progress marker in Redis; completed results are replayed from Redis until the TTL expires.
+ * Both the marker and the stored result carry a SHA-256 fingerprint of the request (path parameters
+ * and body), and a key reused for a different request is rejected with 422 instead of replaying.
+ * Redis calls here bypass the {@link com.booking.cache.RedisCircuitBreaker}: they get their own, longer
+ * timeout and fail closed (503, retry later), since running the work without the key would let a
+ * retry reserve twice.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class IdempotencyService {
+
+    private static final String IN_PROGRESS = "IN_PROGRESS:";
+    private static final String FINGERPRINT = "fingerprint";
+    private static final String RESPONSE = "response";
+
+    private final ReactiveRedisTemplate<String, Object> redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final ConcurrentHashMap<String, InFlight> inFlight = new ConcurrentHashMap<>();
+
+    @Value("${booking.idempotency.result-ttl-seconds:86400}")
+    private long resultTtlSeconds;
+
+    @Value("${booking.idempotency.in-progress-ttl-seconds:30}")
+    private long inProgressTtlSeconds;
+
+    @Value("${booking.idempotency.redis-timeout-ms:1000}")
+    private long redisTimeoutMs;
+
+    /**
+     * Run the work at most once per (scope, idempotencyKey), replaying the stored result for retries.
+     * request is everything that identifies the request (path parameters and body); a retry must
+     * send the same, otherwise it fails with IdempotencyKeyReusedException.
+     */
+    public Mono<ReservationResponse> execute(String scope, String idempotencyKey, Object request,
+                                             Supplier<Mono<ReservationResponse>> work) {
+        return execute(scope, idempotencyKey, request, ReservationResponse.class, work);
+    }
+
+    /**
+     * As above, for work with another response type; replayed results are read back as responseType
+     */
+    public <T> Mono<T> execute(String scope, String idempotencyKey, Object request, Class<T> responseType,
+                               Supplier<Mono<T>> work) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return Mono.defer(work);
+        }
+
+        String key = "idempotency:" + scope + ":" + idempotencyKey;
+        return Mono.fromCallable(() -> fingerprint(request))
+                .flatMap(fingerprint -> {
+                    InFlight running = inFlight.computeIfAbsent(key, k -> new InFlight(fingerprint,
+                            lookupOrRun(k, fingerprint, responseType, work)
+                                    .doFinally(signal -> inFlight.remove(k))
+                                    .cache()
+                    ));
+                    if (!running.fingerprint().equals(fingerprint)) {
+                        return Mono.error(keyReused());
+                    }
+                    return running.result().cast(responseType);
+                });
+    }
+
+    private <T> Mono<T> lookupOrRun(String key, String fingerprint, Class<T> responseType, Supplier<Mono<T>> work) {
+        return redis(redisTemplate.opsForValue().get(key))
+                .flatMap(existing -> {
+                    if (existing instanceof String marker && marker.startsWith(IN_PROGRESS)) {
+                        return Mono.<T>error(marker.equals(IN_PROGRESS + fingerprint)
+                                ? new IdempotencyConflictException("A request with this Idempotency-Key is already in progress")
+                                : keyReused());
+                    }
+                    // The Redis serializer has no default typing, so stored results come back as maps
+                    Map<?, ?> stored = objectMapper.convertValue(existing, Map.class);
+                    if (!fingerprint.equals(stored.get(FINGERPRINT))) {
+                        return Mono.<T>error(keyReused());
+                    }
+                    log.debug("Replaying stored result for {}", key);
+                    return Mono.just(objectMapper.convertValue(stored.get(RESPONSE), responseType));
+                })
+                .switchIfEmpty(Mono.defer(() -> claim(key, fingerprint)
+                        .flatMap(claimed -> claimed
+                                ? run(key, fingerprint, work)
+                                : Mono.error(new IdempotencyConflictException(
+                                        "A request with this Idempotency-Key is already in progress"
+                                )))
+                ));
+    }
+
+    private Mono<Boolean> claim(String key, String fingerprint) {
+        return redis(redisTemplate.opsForValue().setIfAbsent(key, IN_PROGRESS + fingerprint, Duration.ofSeconds(inProgressTtlSeconds)));
+    }
+
+    private <T> Mono<T> run(String key, String fingerprint, Supplier<Mono<T>> work) {
+        return Mono.defer(work)
+                .flatMap(response ->
+                    redis(redisTemplate.opsForValue().set(key,
+                                    Map.of(FINGERPRINT, fingerprint, RESPONSE, response),
+                                    Duration.ofSeconds(resultTtlSeconds)))
+                            // The work is done; retries see the marker (409) until it expires
+                            .onErrorResume(error -> {
+                                log.warn("Could not store the result for {}: {}", key, error.getMessage());
+                                return Mono.empty();
+                            })
+                            .thenReturn(response)
+                )
+                .onErrorResume(error ->
+                    // A failed attempt consumed no capacity (its transaction rolled back), so let the client retry
+                    redis(redisTemplate.delete(key))
+                            .onErrorResume(deleteError -> {
+                                log.warn("Could not release {}, it expires in {} s: {}", key, inProgressTtlSeconds, deleteError.getMessage());
+                                return Mono.empty();
+                            })
+                            .then(Mono.error(error))
+                );
+    }
+
+    /**
+     * A Redis call within redis-timeout-ms; an error or timeout fails the request with 503
+     */
+    private <T> Mono<T> redis(Mono<T> call) {
+        return call.timeout(Duration.ofMillis(redisTimeoutMs))
+                .onErrorMap(error -> new IdempotencyUnavailableException(
+                        "Idempotency keys are temporarily unavailable, retry shortly", error));
+    }
+
+    private String fingerprint(Object request) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request)));
+    }
+
+    private static IdempotencyKeyReusedException keyReused() {
+        return new IdempotencyKeyReusedException("This Idempotency-Key was already used for a different request");
+    }
+
+    private record InFlight(String fingerprint, Mono<?> result) {
+    }
+}
@@ -0,0 +1,88 @@
+package com.booking.service;
+
+import com.booking.config.BackgroundSchedulers;
+import com.booking.config.DatabaseWorkload;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps the monthly reservation/tickets partitions (V11) ahead of incoming event dates and
+ * retires the ones whose event dates are past the retention window. Both SQL functions take an
+ * advisory lock, so only one node does the work per run.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PartitionMaintenanceService {
+
+    private final DatabaseClient databaseClient;
+    private final BackgroundSchedulers schedulers;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Value("${booking.partitions.months-ahead:12}")
+    private int monthsAhead;
+
+    @Value("${booking.partitions.retention-months:6}")
+    private int retentionMonths;
+
+    @Value("${booking.partitions.drop-retired:false}")
+    private boolean dropRetired;
+
+    /**
+     * Scheduled task to create upcoming partitions and retire old ones
+     */
+    @Scheduled(
+            fixedDelayString = "${booking.partitions.maintenance-interval-ms:3600000}",
+            initialDelayString = "${booking.partitions.initial-delay-ms:60000}"
+    )
+    public void maintainPartitions() {
+        if (!running.compareAndSet(false, true)) {
+            log.debug("Previous partition maintenance still running, skipping this run");
+            return;
+        }
+
+        LocalDate today = LocalDate.now();
+
+        createPartitions(today, today.plusMonths(monthsAhead))
+                .then(retirePartitions(today.withDayOfMonth(1).minusMonths(retentionMonths)))
+                .subscribeOn(schedulers.jobs())
+                .contextWrite(DatabaseWorkload.BACKGROUND.asContext())
+                .doFinally(signal -> running.set(false))
+                .subscribe(
+                        null,
+                        error -> log.error("Error during partition maintenance", error)
+                );
+    }
+
+    private Mono<Integer> createPartitions(LocalDate from, LocalDate to) {
+        return databaseClient.sql("SELECT create_booking_partitions(:from, :to)")
+                .bind("from", from)
+                .bind("to", to)
+                .map(row -> row.get(0, Integer.class))
+                .one()
+                .doOnNext(created -> {
+                    if (created > 0) {
+                        log.info("Created {} reservation/tickets partitions up to {}", created, to);
+                    }
+                });
+    }
+
+    private Mono<Void> retirePartitions(LocalDate before) {
+        return databaseClient.sql("SELECT retire_booking_partitions(:before, :drop)")
+                .bind("before", before)
+                .bind("drop", dropRetired)
+                .map(row -> row.get(0, String.class))
+                .all()
+                .doOnNext(partition -> log.info("{} partition {} (event dates before {})",
+                        dropRetired ? "Dropped" : "Detached", partition, before))
+                .then();
+    }
+}
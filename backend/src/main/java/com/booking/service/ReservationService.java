@@ -1,15 +1,19 @@
 package com.booking.service;
 
+import com.booking.domain.entity.OutboxEvent;
 import com.booking.domain.entity.Reservation;
-import com.booking.domain.entity.Ticket;
 import com.booking.domain.repository.ConsumptionRepository;
 import com.booking.domain.repository.ConsumptionTTRepository;
+import com.booking.domain.repository.OutboxEventRepository;
+import com.booking.domain.repository.ReservationAllocationRepository;
 import com.booking.domain.repository.ReservationRepository;
-import com.booking.domain.repository.TicketRepository;
+import com.booking.dto.request.BatchPaymentRequest;
 import com.booking.dto.request.TicketRequest;
+import com.booking.dto.response.BatchConfirmationResponse;
 import com.booking.dto.response.ReservationResponse;
 import com.booking.exception.InsufficientCapacityException;
 import com.booking.exception.ReservationNotFoundException;
+import com.booking.service.CapacityReleaseService.ReleasedReservation;
 import com.booking.sharding.ShardSelector;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -22,7 +26,9 @@ import reactor.core.publisher.Mono;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Slf4j
 @Service
@@ -30,11 +36,13 @@ import java.util.List;
 public class ReservationService {
 
     private final ReservationRepository reservationRepository;
-    private final TicketRepository ticketRepository;
+    private final ReservationAllocationRepository allocationRepository;
+    private final OutboxEventRepository outboxEventRepository;
     private final ConsumptionRepository consumptionRepository;
     private final ConsumptionTTRepository consumptionTTRepository;
     private final ShardSelector shardSelector;
     private final CacheService cacheService;
+    private final CapacityReleaseService capacityReleaseService;
 
     @Value("${booking.reservation.ttl-seconds:60}")
     private long reservationTtlSeconds;
@@ -50,6 +58,7 @@ public class ReservationService {
             List<TicketRequest> ticketRequests) {
 
         LocalDateTime expiresAt = LocalDateTime.now().plusSeconds(reservationTtlSeconds);
+        int ticketCount = ticketRequests.stream().mapToInt(TicketRequest::getQuantity).sum();
 
         // Create reservation
         Reservation reservation = Reservation.builder()
@@ -57,54 +66,53 @@ public class ReservationService {
                 .date(date)
                 .startTime(startTime)
                 .status(Reservation.ReservationStatus.PENDING)
+                .ticketCount(ticketCount)
                 .expiresAt(expiresAt)
                 .build();
 
-        return reservationRepository.save(reservation)
-                .flatMap(savedReservation ->
-                    // Process each ticket type request
-                    Flux.fromIterable(ticketRequests)
-                            .flatMap(ticketReq ->
-                                processTicketRequest(savedReservation, ticketReq)
-                            )
-                            .collectList()
-                            .map(tickets -> toReservationResponse(savedReservation, tickets.size()))
-                )
-                .doOnSuccess(response ->
-                    cacheService.invalidateEventDateCache(eventId, date, startTime).subscribe()
-                );
+        List<Long> ticketTypeIds = ticketRequests.stream().map(TicketRequest::getTicketTypeId).toList();
+
+        // One shard per ticket request, all looked up in a single cache round trip
+        return shardSelector.selectShards(eventId, date, startTime, ticketTypeIds)
+                .flatMap(shardIds -> reservationRepository.save(reservation)
+                        .flatMap(savedReservation ->
+                            // Process each ticket type request
+                            Flux.range(0, ticketRequests.size())
+                                    .flatMap(i ->
+                                        processTicketRequest(savedReservation, ticketRequests.get(i), shardIds.get(i))
+                                    )
+                                    .then(allocationRepository.enqueueMaterialization(savedReservation.getId()))
+                                    // Cache invalidation is driven by OutboxRelay once this commits
+                                    .then(outboxEventRepository.append(
+                                            OutboxEvent.EventType.RESERVATION_CREATED.name(),
+                                            savedReservation.getId(), eventId, date, startTime, ticketCount))
+                                    .then(Mono.fromSupplier(() -> toReservationResponse(savedReservation, ticketCount)))
+                        ));
     }
 
     /**
-     * Process a single ticket type request (select shard, update counters, create tickets)
+     * Process a single ticket type request on its selected shard (update counters, record allocation)
      */
-    private Mono<List<Ticket>> processTicketRequest(Reservation reservation, TicketRequest ticketRequest) {
-        return shardSelector.selectShard(
+    private Mono<Integer> processTicketRequest(Reservation reservation, TicketRequest ticketRequest, Integer shardId) {
+        return updateConsumptionCounters(
                         reservation.getEventId(),
                         reservation.getDate(),
                         reservation.getStartTime(),
-                        ticketRequest.getTicketTypeId()
+                        ticketRequest.getTicketTypeId(),
+                        shardId,
+                        ticketRequest.getQuantity()
                 )
-                .flatMap(shardId ->
-                    updateConsumptionCounters(
-                            reservation.getEventId(),
-                            reservation.getDate(),
-                            reservation.getStartTime(),
-                            ticketRequest.getTicketTypeId(),
-                            shardId,
-                            ticketRequest.getQuantity()
-                    )
-                    .flatMap(success -> {
-                        if (!success) {
-                            return Mono.error(new InsufficientCapacityException(
-                                    "Shard " + shardId + " full for ticket type " + ticketRequest.getTicketTypeId()
-                            ));
-                        }
-
-                        // Create tickets
-                        return createTickets(reservation, ticketRequest, shardId);
-                    })
-                );
+                .flatMap(success -> {
+                    if (!success) {
+                        return Mono.error(new InsufficientCapacityException(
+                                "Shard " + shardId + " full for ticket type " + ticketRequest.getTicketTypeId()
+                        ));
+                    }
+
+                    // Ticket rows are written later by TicketMaterializer from this allocation
+                    return allocationRepository.insertAllocation(
+                            reservation.getId(), ticketRequest.getTicketTypeId(), shardId, ticketRequest.getQuantity());
+                });
     }
 
     /**
@@ -130,56 +138,115 @@ public class ReservationService {
     }
 
     /**
-     * Create individual ticket records
+     * Confirm payment for a reservation.
+     * The status and expiry checks live in a single conditional UPDATE ... RETURNING, so the happy
+     * path is one round trip and cannot race with expiry; the row is only re-read to explain a failure.
      */
-    private Mono<List<Ticket>> createTickets(Reservation reservation, TicketRequest ticketRequest, Integer shardId) {
-        List<Ticket> tickets = new java.util.ArrayList<>();
-        for (int i = 0; i < ticketRequest.getQuantity(); i++) {
-            tickets.add(Ticket.builder()
-                    .eventId(reservation.getEventId())
-                    .date(reservation.getDate())
-                    .startTime(reservation.getStartTime())
-                    .ticketTypeId(ticketRequest.getTicketTypeId())
-                    .reservationId(reservation.getId())
-                    .shardId(shardId)
-                    .build());
-        }
+    public Mono<ReservationResponse> confirmPayment(Long reservationId, String paymentRef) {
+        return reservationRepository.confirmIfPending(reservationId, paymentRef, LocalDateTime.now())
+                .map(reservation -> toReservationResponse(reservation, reservation.getTicketCount()))
+                .switchIfEmpty(Mono.defer(() -> reservationRepository.findById(reservationId)
+                        .switchIfEmpty(Mono.error(new ReservationNotFoundException("Reservation " + reservationId + " not found")))
+                        .flatMap(reservation -> Mono.<ReservationResponse>error(new IllegalStateException(
+                                reservation.getStatus() != Reservation.ReservationStatus.PENDING
+                                        ? "Reservation " + reservationId + " is not pending"
+                                        : "Reservation " + reservationId + " has expired"
+                        )))));
+    }
+
+    /**
+     * Confirm many reservations in one statement (payment processor webhook bursts).
+     * Each item is reported individually; failures never roll back the items that succeeded.
+     */
+    public Mono<BatchConfirmationResponse> confirmPayments(List<BatchPaymentRequest.PaymentConfirmation> confirmations) {
+        Map<Long, String> paymentRefs = new LinkedHashMap<>();
+        confirmations.forEach(c -> paymentRefs.putIfAbsent(c.getReservationId(), c.getPaymentReference()));
+
+        Long[] ids = paymentRefs.keySet().toArray(Long[]::new);
+        String[] refs = paymentRefs.values().toArray(String[]::new);
+
+        return reservationRepository.confirmAllIfPending(ids, refs, LocalDateTime.now())
+                .collectMap(Reservation::getId)
+                .flatMap(confirmed -> {
+                    List<Long> failedIds = paymentRefs.keySet().stream()
+                            .filter(id -> !confirmed.containsKey(id))
+                            .toList();
+
+                    Mono<Map<Long, Reservation>> failedRows = failedIds.isEmpty()
+                            ? Mono.just(Map.of())
+                            : reservationRepository.findAllByIds(failedIds.toArray(Long[]::new)).collectMap(Reservation::getId);
+
+                    return failedRows.map(failed -> {
+                        List<BatchConfirmationResponse.Item> results = paymentRefs.entrySet().stream()
+                                .map(entry -> confirmed.containsKey(entry.getKey())
+                                        ? toConfirmedItem(confirmed.get(entry.getKey()), "CONFIRMED")
+                                        : toFailedItem(entry.getKey(), entry.getValue(), failed.get(entry.getKey())))
+                                .toList();
+
+                        return BatchConfirmationResponse.builder()
+                                .confirmed(confirmed.size())
+                                .failed(failedIds.size())
+                                .results(results)
+                                .build();
+                    });
+                });
+    }
 
-        return ticketRepository.saveAll(tickets).collectList();
+    private BatchConfirmationResponse.Item toConfirmedItem(Reservation reservation, String status) {
+        return BatchConfirmationResponse.Item.builder()
+                .reservationId(reservation.getId())
+                .status(status)
+                .ticketCount(reservation.getTicketCount())
+                .expiresAt(reservation.getExpiresAt())
+                .build();
+    }
+
+    private BatchConfirmationResponse.Item toFailedItem(Long reservationId, String paymentRef, Reservation reservation) {
+        if (reservation == null) {
+            return BatchConfirmationResponse.Item.builder()
+                    .reservationId(reservationId)
+                    .status("NOT_FOUND")
+                    .message("Reservation " + reservationId + " not found")
+                    .build();
+        }
+        if (reservation.getStatus() == Reservation.ReservationStatus.CONFIRMED
+                && paymentRef.equals(reservation.getPaymentRef())) {
+            // Webhook redelivery: same payment already applied
+            return toConfirmedItem(reservation, "ALREADY_CONFIRMED");
+        }
+        if (reservation.getStatus() != Reservation.ReservationStatus.PENDING) {
+            return BatchConfirmationResponse.Item.builder()
+                    .reservationId(reservationId)
+                    .status("NOT_PENDING")
+                    .message("Reservation " + reservationId + " is " + reservation.getStatus())
+                    .build();
+        }
+        return BatchConfirmationResponse.Item.builder()
+                .reservationId(reservationId)
+                .status("EXPIRED")
+                .expiresAt(reservation.getExpiresAt())
+                .message("Reservation " + reservationId + " has expired")
+                .build();
     }
 
     /**
-     * Confirm payment for a reservation
+     * Cancel a pending reservation and release its capacity immediately.
+     * Caches are invalidated before responding so the freed seats are visible to the next request.
      */
-    @Transactional
-    public Mono<ReservationResponse> confirmPayment(Long reservationId, String paymentRef) {
-        return reservationRepository.findById(reservationId)
-                .switchIfEmpty(Mono.error(new ReservationNotFoundException("Reservation " + reservationId + " not found")))
-                .flatMap(reservation -> {
-                    if (reservation.getStatus() != Reservation.ReservationStatus.PENDING) {
-                        return Mono.error(new IllegalStateException(
+    public Mono<ReservationResponse> cancelReservation(Long reservationId) {
+        return capacityReleaseService.releasePending(reservationId, Reservation.ReservationStatus.CANCELLED)
+                .switchIfEmpty(Mono.defer(() -> reservationRepository.findById(reservationId)
+                        .switchIfEmpty(Mono.error(new ReservationNotFoundException("Reservation " + reservationId + " not found")))
+                        .flatMap(reservation -> Mono.<ReleasedReservation>error(new IllegalStateException(
                                 "Reservation " + reservationId + " is not pending"
-                        ));
-                    }
-
-                    if (reservation.getExpiresAt().isBefore(LocalDateTime.now())) {
-                        return Mono.error(new IllegalStateException(
-                                "Reservation " + reservationId + " has expired"
-                        ));
-                    }
+                        )))))
+                .flatMap(released -> {
+                    Reservation reservation = released.reservation();
+                    log.info("Cancelled reservation {}, released {} tickets", reservationId, released.ticketCount());
 
-                    return reservationRepository.confirmReservation(reservationId, paymentRef)
-                            .flatMap(rowsUpdated ->
-                                ticketRepository.countByReservationId(reservationId)
-                                        .map(ticketCount ->
-                                            ReservationResponse.builder()
-                                                    .reservationId(reservationId)
-                                                    .expiresAt(reservation.getExpiresAt())
-                                                    .ticketCount(ticketCount.intValue())
-                                                    .status("CONFIRMED")
-                                                    .build()
-                                        )
-                            );
+                    return cacheService.invalidateEventDateCache(
+                                    reservation.getEventId(), reservation.getDate(), reservation.getStartTime())
+                            .thenReturn(toReservationResponse(reservation, released.ticketCount()));
                 });
     }
 
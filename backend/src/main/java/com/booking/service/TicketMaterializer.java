@@ -0,0 +1,60 @@
+package com.booking.service;
+
+import com.booking.config.BackgroundSchedulers;
+import com.booking.config.DatabaseWorkload;
+import com.booking.domain.repository.ReservationAllocationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Writes individual ticket rows for committed reservations, off the reservation hot path.
+ * Works through ticket_materialization_queue in batches; SKIP LOCKED lets every node drain it.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TicketMaterializer {
+
+    private final ReservationAllocationRepository allocationRepository;
+    private final BackgroundSchedulers schedulers;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Value("${booking.tickets.materialize-batch-size:200}")
+    private int batchSize;
+
+    @Value("${booking.tickets.materialize-max-batches:20}")
+    private int maxBatchesPerRun;
+
+    /**
+     * Scheduled task to materialize queued tickets, draining up to max-batches batches per run
+     */
+    @Scheduled(fixedDelayString = "${booking.tickets.materialize-interval-ms:1000}")
+    public void materializeQueuedTickets() {
+        if (!running.compareAndSet(false, true)) {
+            log.debug("Previous ticket materialization still running, skipping this run");
+            return;
+        }
+
+        Mono.defer(() -> allocationRepository.materializeBatch(batchSize))
+                .repeat(maxBatchesPerRun - 1)
+                .takeUntil(processed -> processed < batchSize)
+                .reduce(0L, Long::sum)
+                .subscribeOn(schedulers.jobs())
+                .contextWrite(DatabaseWorkload.BACKGROUND.asContext())
+                .doFinally(signal -> running.set(false))
+                .subscribe(
+                        processed -> {
+                            if (processed > 0) {
+                                log.debug("Materialized tickets for {} reservations", processed);
+                            }
+                        },
+                        error -> log.error("Error during ticket materialization", error)
+                );
+    }
+}
@@ -1,16 +1,26 @@
 package com.booking.sharding;
 
+import com.booking.availability.AvailabilityChangeFeed;
+import com.booking.availability.ConsumptionChange;
+import com.booking.cache.CacheRegion;
 import com.booking.domain.repository.ConsumptionRepository;
 import com.booking.domain.repository.ConsumptionTTRepository;
 import com.booking.service.CacheService;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Slf4j
 @Component
@@ -20,45 +30,122 @@ public class ShardHealthMonitor {
     private final ConsumptionRepository consumptionRepository;
     private final ConsumptionTTRepository consumptionTTRepository;
     private final CacheService cacheService;
+    private final AvailabilityChangeFeed changeFeed;
+    private final SoldOutRegistry soldOutRegistry;
+    private final CacheRegion<List<Integer>> shardAvailabilityRegion;
+
+    @PostConstruct
+    void subscribeToChangeFeed() {
+        changeFeed.changes().subscribe(this::applyChange);
+    }
 
     /**
      * Get list of available shard IDs for total consumption (when ticketTypeId is null)
      * or for specific ticket type consumption
      */
     public Mono<List<Integer>> getAvailableShards(Long eventId, LocalDate date, LocalTime startTime, Long ticketTypeId) {
-        if (ticketTypeId == null) {
-            return getAvailableShardsForTotal(eventId, date, startTime);
-        } else {
-            return getAvailableShardsForTicketType(eventId, date, startTime, ticketTypeId);
+        return soldOutRegistry.checkSoldOut(eventId, date, startTime, ticketTypeId)
+                .flatMap(soldOut -> {
+                    if (soldOut) {
+                        return Mono.just(List.<Integer>of());
+                    }
+                    return cacheService.getOrLoad(shardAvailabilityRegion, buildShardCacheKey(eventId, date, startTime, ticketTypeId),
+                            () -> loadShards(eventId, date, startTime, ticketTypeId));
+                });
+    }
+
+    /**
+     * Available shards for several ticket types of one event date (null for the total), keyed by ticket type.
+     * Costs one HMGET for the sold-out flags and one MGET for the shard lists, however many ticket types
+     * are asked for; only lists missing from both cache layers are queried, concurrently.
+     */
+    public Mono<Map<Long, List<Integer>>> getAvailableShardsByTicketType(Long eventId, LocalDate date, LocalTime startTime,
+                                                                        Collection<Long> ticketTypeIds) {
+        return soldOutRegistry.checkSoldOut(eventId, date, startTime, ticketTypeIds)
+                .flatMap(soldOut -> {
+                    Map<String, Long> ticketTypeByKey = new LinkedHashMap<>();
+                    for (Long ticketTypeId : ticketTypeIds) {
+                        if (!soldOut.contains(ticketTypeId)) {
+                            ticketTypeByKey.put(buildShardCacheKey(eventId, date, startTime, ticketTypeId), ticketTypeId);
+                        }
+                    }
+
+                    return cacheService.getAllOrLoad(shardAvailabilityRegion, ticketTypeByKey.keySet(), missing ->
+                                    Flux.fromIterable(missing)
+                                            .flatMap(key -> loadShards(eventId, date, startTime, ticketTypeByKey.get(key))
+                                                    .map(shards -> Map.entry(key, shards)))
+                                            .collectMap(Map.Entry::getKey, Map.Entry::getValue))
+                            .flatMap(shardsByKey -> {
+                                // HashMap, as the total is keyed by null
+                                Map<Long, List<Integer>> result = new HashMap<>();
+                                List<Long> unresolved = new ArrayList<>();
+                                for (Long ticketTypeId : ticketTypeIds) {
+                                    List<Integer> shards = soldOut.contains(ticketTypeId)
+                                            ? List.of()
+                                            : shardsByKey.get(buildShardCacheKey(eventId, date, startTime, ticketTypeId));
+                                    if (shards != null) {
+                                        result.put(ticketTypeId, shards);
+                                    } else {
+                                        unresolved.add(ticketTypeId);
+                                    }
+                                }
+                                // A list the cache didn't return is unknown, not empty: query it rather than report no shards
+                                return Flux.fromIterable(unresolved)
+                                        .concatMap(ticketTypeId -> loadShards(eventId, date, startTime, ticketTypeId)
+                                                .doOnNext(shards -> result.put(ticketTypeId, shards)))
+                                        .then(Mono.just(result));
+                            });
+                });
+    }
+
+    /**
+     * True when this node already knows there are no available shards (sold-out state or an empty L1 list).
+     * Never touches Redis or the database, so it is safe to call on the admission path.
+     */
+    public boolean isKnownSoldOut(Long eventId, LocalDate date, LocalTime startTime, Long ticketTypeId) {
+        if (soldOutRegistry.isSoldOut(eventId, date, startTime, ticketTypeId)) {
+            return true;
         }
+        List<Integer> shards = cacheService.getLocal(shardAvailabilityRegion, buildShardCacheKey(eventId, date, startTime, ticketTypeId));
+        return shards != null && shards.isEmpty();
     }
 
-    private Mono<List<Integer>> getAvailableShardsForTotal(Long eventId, LocalDate date, LocalTime startTime) {
-        String cacheKey = buildShardCacheKey(eventId, date, startTime, null);
+    /**
+     * Replace the cached shard list with the one from a change committed on any node.
+     * Lists this node hasn't loaded are left alone; they are read fresh when first needed.
+     */
+    void applyChange(ConsumptionChange change) {
+        if (change.isReleased()) {
+            // Capacity came back (expiry, cancellation, repair) on some node
+            soldOutRegistry.clearLocal(change.getEventId(), change.getDate(), change.getStartTime());
+        }
 
-        return cacheService.get(cacheKey, List.class)
-                .switchIfEmpty(
-                        consumptionRepository.findAvailableShards(eventId, date, startTime)
-                                .map(consumption -> consumption.getShardId())
-                                .collectList()
-                                .flatMap(shards ->
-                                    cacheService.set(cacheKey, shards, 5).thenReturn(shards)
-                                )
-                );
+        String cacheKey = buildShardCacheKey(change.getEventId(), change.getDate(), change.getStartTime(), change.getTicketTypeId());
+        List<Integer> cached = cacheService.getLocal(shardAvailabilityRegion, cacheKey);
+        if (cached == null) {
+            return;
+        }
+
+        cacheService.putLocal(shardAvailabilityRegion, cacheKey, List.copyOf(change.getAvailableShards()));
     }
 
-    private Mono<List<Integer>> getAvailableShardsForTicketType(Long eventId, LocalDate date, LocalTime startTime, Long ticketTypeId) {
-        String cacheKey = buildShardCacheKey(eventId, date, startTime, ticketTypeId);
+    /**
+     * Query the shards with room and record a sell-out when there are none, unless capacity was
+     * released while the query ran
+     */
+    private Mono<List<Integer>> loadShards(Long eventId, LocalDate date, LocalTime startTime, Long ticketTypeId) {
+        return Mono.defer(() -> {
+            long version = soldOutRegistry.version(eventId, date, startTime);
+            Flux<Integer> shardIds = ticketTypeId == null
+                    ? consumptionRepository.findAvailableShards(eventId, date, startTime).map(consumption -> consumption.getShardId())
+                    : consumptionTTRepository.findAvailableShards(eventId, date, startTime, ticketTypeId).map(consumption -> consumption.getShardId());
 
-        return cacheService.get(cacheKey, List.class)
-                .switchIfEmpty(
-                        consumptionTTRepository.findAvailableShards(eventId, date, startTime, ticketTypeId)
-                                .map(consumption -> consumption.getShardId())
-                                .collectList()
-                                .flatMap(shards ->
-                                    cacheService.set(cacheKey, shards, 5).thenReturn(shards)
-                                )
-                );
+            return shardIds.collectList()
+                    .flatMap(shards ->
+                        (shards.isEmpty() ? soldOutRegistry.markSoldOut(eventId, date, startTime, ticketTypeId, version) : Mono.<Void>empty())
+                                .thenReturn(shards)
+                    );
+        });
     }
 
     private String buildShardCacheKey(Long eventId, LocalDate date, LocalTime startTime, Long ticketTypeId) {
@@ -27,24 +27,48 @@ public class ShardSelector {
      */
     public Mono<Integer> selectShard(Long eventId, LocalDate date, LocalTime startTime, Long ticketTypeId) {
         return healthMonitor.getAvailableShards(eventId, date, startTime, ticketTypeId)
-                .map(availableShards -> {
-                    if (availableShards.isEmpty()) {
-                        throw new NoShardsAvailableException(
-                                "No available shards for event " + eventId + " on " + date + " at " + startTime
-                        );
-                    }
+                .map(availableShards -> roundRobin(eventId, date, startTime, ticketTypeId, availableShards));
+    }
 
-                    String key = buildCounterKey(eventId, date, startTime, ticketTypeId);
-                    AtomicInteger counter = instanceCounters.computeIfAbsent(key, k -> new AtomicInteger(0));
+    /**
+     * Select one shard per entry of ticketTypeIds (same order), looking all of them up in one batch
+     */
+    public Mono<List<Integer>> selectShards(Long eventId, LocalDate date, LocalTime startTime, List<Long> ticketTypeIds) {
+        return healthMonitor.getAvailableShardsByTicketType(eventId, date, startTime, ticketTypeIds)
+                .map(shardsByTicketType -> ticketTypeIds.stream()
+                        .map(ticketTypeId -> roundRobin(eventId, date, startTime, ticketTypeId,
+                                shardsByTicketType.getOrDefault(ticketTypeId, List.of())))
+                        .toList());
+    }
 
-                    int idx = Math.abs(counter.getAndIncrement()) % availableShards.size();
-                    Integer selectedShard = availableShards.get(idx);
+    private Integer roundRobin(Long eventId, LocalDate date, LocalTime startTime, Long ticketTypeId,
+                               List<Integer> availableShards) {
+        if (availableShards.isEmpty()) {
+            throw new NoShardsAvailableException(
+                    "No available shards for event " + eventId + " on " + date + " at " + startTime
+            );
+        }
 
-                    log.debug("Selected shard {} from {} available shards for event {}",
-                             selectedShard, availableShards.size(), eventId);
+        String key = buildCounterKey(eventId, date, startTime, ticketTypeId);
+        // Random start, so nodes that start (or are restored from one checkpoint) together don't pick shards in lockstep
+        AtomicInteger counter = instanceCounters.computeIfAbsent(key, k -> new AtomicInteger(random.nextInt(availableShards.size())));
 
-                    return selectedShard;
-                });
+        int idx = Math.abs(counter.getAndIncrement()) % availableShards.size();
+        Integer selectedShard = availableShards.get(idx);
+
+        log.debug("Selected shard {} from {} available shards for event {}",
+                 selectedShard, availableShards.size(), eventId);
+
+        return selectedShard;
+    }
+
+    /**
+     * Forget the round-robin positions and reseed; after a CRaC restore every node restored from the
+     * same checkpoint would otherwise carry identical counters and an identical random sequence
+     */
+    public void resetCounters() {
+        random.setSeed(System.nanoTime() ^ ProcessHandle.current().pid());
+        instanceCounters.clear();
     }
 
     /**
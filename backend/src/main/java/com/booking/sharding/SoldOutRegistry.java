@@ -0,0 +1,214 @@
+package com.booking.sharding;
+
+import com.booking.cache.RedisCircuitBreaker;
+import com.booking.cache.RedisCircuitBreaker.Operation;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Explicit sold-out state per event date and ticket type ("total" for the event date as a whole).
+ * Set when a fresh shard lookup comes back empty, cleared when an expiry or cancellation releases
+ * capacity. The in-memory copy answers the admission path without I/O; Redis shares the state
+ * between nodes (one hash per event date, so a release clears every ticket type in one DEL).
+ * The in-memory copy is keyed the same way, so a clear is a single invalidate.
+ * Every clear stamps the event date with a new version; a sell-out read before the latest clear
+ * (a shard query or Redis read that raced a release) is dropped rather than recorded.
+ * Both copies expire, so a missed clear costs at most one TTL of false sell-outs.
+ */
+@Slf4j
+@Component
+public class SoldOutRegistry {
+
+    private static final String TOTAL = "total";
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final RedisCircuitBreaker circuitBreaker;
+    private final Cache<String, Set<String>> local;
+    private final Cache<String, Long> clearVersions;
+    private final AtomicLong versionSequence = new AtomicLong();
+
+    @Value("${booking.sold-out.redis-ttl-seconds:30}")
+    private long redisTtlSeconds;
+
+    public SoldOutRegistry(ReactiveStringRedisTemplate redisTemplate,
+                           RedisCircuitBreaker circuitBreaker,
+                           @Value("${booking.sold-out.local-ttl-seconds:10}") long localTtlSeconds) {
+        this.redisTemplate = redisTemplate;
+        this.circuitBreaker = circuitBreaker;
+        this.local = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(Duration.ofSeconds(localTtlSeconds))
+                .build();
+        // Outlives any shard query in flight; a version that expired reads as changed, which only skips a mark
+        this.clearVersions = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(Duration.ofMinutes(5))
+                .build();
+    }
+
+    /**
+     * In-memory check only, safe to call on the admission path
+     */
+    public boolean isSoldOut(Long eventId, LocalDate date, LocalTime startTime, Long ticketTypeId) {
+        Set<String> soldOut = local.getIfPresent(eventDateKey(eventId, date, startTime));
+        return soldOut != null && soldOut.contains(field(ticketTypeId));
+    }
+
+    /**
+     * The event date's current clear version; pass it to markSoldOut from a read started now
+     */
+    public long version(Long eventId, LocalDate date, LocalTime startTime) {
+        Long version = clearVersions.getIfPresent(eventDateKey(eventId, date, startTime));
+        return version != null ? version : 0L;
+    }
+
+    /**
+     * In-memory check, then Redis (a sell-out recorded by another node); never touches Postgres
+     */
+    public Mono<Boolean> checkSoldOut(Long eventId, LocalDate date, LocalTime startTime, Long ticketTypeId) {
+        if (isSoldOut(eventId, date, startTime, ticketTypeId)) {
+            return Mono.just(true);
+        }
+
+        long version = version(eventId, date, startTime);
+        // Without Redis only this node's flags count; the shard query still finds a real sell-out
+        return circuitBreaker.execute(Operation.READ,
+                        () -> redisTemplate.opsForHash().hasKey(redisKey(eventId, date, startTime), field(ticketTypeId)),
+                        () -> Mono.just(false))
+                .doOnNext(soldOut -> {
+                    if (soldOut) {
+                        putLocal(eventId, date, startTime, List.of(field(ticketTypeId)), version);
+                    }
+                });
+    }
+
+    /**
+     * Batch form of checkSoldOut for several ticket types of one event date: in-memory first, then
+     * a single HMGET for the ticket types this node has no flag for. Returns the sold-out ones.
+     */
+    public Mono<Set<Long>> checkSoldOut(Long eventId, LocalDate date, LocalTime startTime, Collection<Long> ticketTypeIds) {
+        Set<Long> soldOut = new HashSet<>();
+        List<Long> unknown = new ArrayList<>();
+        for (Long ticketTypeId : ticketTypeIds) {
+            if (isSoldOut(eventId, date, startTime, ticketTypeId)) {
+                soldOut.add(ticketTypeId);
+            } else {
+                unknown.add(ticketTypeId);
+            }
+        }
+        if (unknown.isEmpty()) {
+            return Mono.just(soldOut);
+        }
+
+        long version = version(eventId, date, startTime);
+        return circuitBreaker.execute(Operation.BATCH_READ,
+                        () -> redisTemplate.<String, String>opsForHash()
+                                .multiGet(redisKey(eventId, date, startTime), unknown.stream().map(this::field).toList()),
+                        () -> Mono.just(List.<String>of()))
+                .map(flags -> {
+                    List<String> fields = new ArrayList<>();
+                    for (int i = 0; i < unknown.size() && i < flags.size(); i++) {
+                        if (flags.get(i) != null) {
+                            fields.add(field(unknown.get(i)));
+                            soldOut.add(unknown.get(i));
+                        }
+                    }
+                    if (!fields.isEmpty()) {
+                        putLocal(eventId, date, startTime, fields, version);
+                    }
+                    return soldOut;
+                });
+    }
+
+    /**
+     * Record a sell-out found by a read that started at the given version; skipped if the event date
+     * was cleared since, as the read may predate the release
+     */
+    public Mono<Void> markSoldOut(Long eventId, LocalDate date, LocalTime startTime, Long ticketTypeId, long version) {
+        if (!putLocal(eventId, date, startTime, List.of(field(ticketTypeId)), version)) {
+            log.debug("Event {} on {} at {} was released during the shard query, not marking {} sold out",
+                    eventId, date, startTime, field(ticketTypeId));
+            return Mono.empty();
+        }
+        log.info("Event {} on {} at {} sold out ({})", eventId, date, startTime, field(ticketTypeId));
+
+        String key = redisKey(eventId, date, startTime);
+        return circuitBreaker.execute(Operation.WRITE,
+                () -> redisTemplate.opsForHash()
+                        .put(key, field(ticketTypeId), "1")
+                        .then(redisTemplate.expire(key, Duration.ofSeconds(redisTtlSeconds)))
+                        .then(),
+                Mono::empty);
+    }
+
+    /**
+     * Capacity was released on the event date; every ticket type may have room again
+     */
+    public Mono<Void> clear(Long eventId, LocalDate date, LocalTime startTime) {
+        clearLocal(eventId, date, startTime);
+        // A clear Redis misses costs at most one redis-ttl-seconds of false sell-out on other nodes
+        return circuitBreaker.execute(Operation.WRITE,
+                () -> redisTemplate.delete(redisKey(eventId, date, startTime)).then(),
+                Mono::empty);
+    }
+
+    public void clearLocal(Long eventId, LocalDate date, LocalTime startTime) {
+        String key = eventDateKey(eventId, date, startTime);
+        clearVersions.put(key, versionSequence.incrementAndGet());
+        local.invalidate(key);
+    }
+
+    /**
+     * Drop every in-memory flag (after a CRaC restore, when the flags may be arbitrarily old)
+     */
+    public void clearAllLocal() {
+        local.invalidateAll();
+        clearVersions.invalidateAll();
+    }
+
+    /**
+     * Add sold-out fields to the event date unless it was cleared after version; false if skipped.
+     * clearLocal bumps the version before invalidating, so a put either sees the new version or is invalidated.
+     */
+    private boolean putLocal(Long eventId, LocalDate date, LocalTime startTime, Collection<String> fields, long version) {
+        String key = eventDateKey(eventId, date, startTime);
+        boolean[] added = {false};
+        local.asMap().compute(key, (k, current) -> {
+            if (version(eventId, date, startTime) != version) {
+                return current;
+            }
+            added[0] = true;
+            Set<String> soldOut = current != null ? new HashSet<>(current) : new HashSet<>();
+            soldOut.addAll(fields);
+            return Set.copyOf(soldOut);
+        });
+        return added[0];
+    }
+
+    private String redisKey(Long eventId, LocalDate date, LocalTime startTime) {
+        return "soldout:" + eventDateKey(eventId, date, startTime);
+    }
+
+    private String eventDateKey(Long eventId, LocalDate date, LocalTime startTime) {
+        return eventId + ":" + date + ":" + startTime;
+    }
+
+    private String field(Long ticketTypeId) {
+        return ticketTypeId != null ? ticketTypeId.toString() : TOTAL;
+    }
+}
@@ -0,0 +1,130 @@
+package com.booking.waitingroom;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Single-node waiting room store for local development and tests (booking.waiting-room.store=memory)
+ */
+@Component
+@ConditionalOnProperty(name = "booking.waiting-room.store", havingValue = "memory")
+public class InMemoryWaitingRoomStore implements WaitingRoomStore {
+
+    private final ConcurrentHashMap<String, QueueState> queues = new ConcurrentHashMap<>();
+    private final Cache<String, Long> tokens;
+
+    public InMemoryWaitingRoomStore(@Value("${booking.waiting-room.token-ttl-seconds:900}") long tokenTtlSeconds) {
+        this.tokens = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(tokenTtlSeconds))
+                .build();
+    }
+
+    @Override
+    public Mono<Long> enqueue(String queueKey, String token, Duration tokenTtl) {
+        return Mono.fromSupplier(() -> {
+            QueueState queue = queues.computeIfAbsent(queueKey, k -> new QueueState());
+            long position;
+            synchronized (queue) {
+                position = ++queue.seq;
+                queue.active = true;
+            }
+            tokens.put(tokenKey(queueKey, token), position);
+            return position;
+        });
+    }
+
+    @Override
+    public Mono<Long> positionOf(String queueKey, String token) {
+        return Mono.justOrEmpty(tokens.getIfPresent(tokenKey(queueKey, token)));
+    }
+
+    @Override
+    public Mono<Long> admittedUpTo(String queueKey) {
+        return Mono.fromSupplier(() -> {
+            QueueState queue = queues.get(queueKey);
+            if (queue == null) {
+                return 0L;
+            }
+            synchronized (queue) {
+                return queue.admitted;
+            }
+        });
+    }
+
+    @Override
+    public Mono<Long> advance(String queueKey, long nowMillis, double ratePerSecond, long maxBurst) {
+        return Mono.fromSupplier(() -> {
+            QueueState queue = queues.computeIfAbsent(queueKey, k -> new QueueState());
+            synchronized (queue) {
+                if (queue.lastAdvanceMillis == 0) {
+                    queue.lastAdvanceMillis = nowMillis;
+                }
+                long budget = Math.min(maxBurst, (long) Math.floor((nowMillis - queue.lastAdvanceMillis) * ratePerSecond / 1000.0));
+                if (budget > 0) {
+                    queue.admitted = Math.min(queue.seq, queue.admitted + budget);
+                    queue.lastAdvanceMillis = nowMillis;
+                }
+                return queue.admitted;
+            }
+        });
+    }
+
+    @Override
+    public Mono<Claim> claim(String queueKey, String token) {
+        return Mono.defer(() -> admittedUpTo(queueKey).mapNotNull(admitted -> {
+            // The frontier only moves forward, so reading it before the atomic remove is safe
+            Claim[] claim = new Claim[1];
+            tokens.asMap().computeIfPresent(tokenKey(queueKey, token), (key, position) -> {
+                boolean admittedNow = position <= admitted;
+                claim[0] = new Claim(position, admitted, admittedNow, Duration.ZERO);
+                return admittedNow ? null : position;
+            });
+            return claim[0];
+        }));
+    }
+
+    @Override
+    public Mono<Void> restore(String queueKey, String token, Claim claim) {
+        // Restored tokens get a fresh TTL here, acceptable for the single-node store
+        return Mono.fromRunnable(() -> tokens.asMap().putIfAbsent(tokenKey(queueKey, token), claim.position()));
+    }
+
+    @Override
+    public Flux<String> activeQueues() {
+        return Flux.defer(() -> Flux.fromIterable(queues.entrySet())
+                .filter(entry -> entry.getValue().active)
+                .map(Map.Entry::getKey));
+    }
+
+    @Override
+    public Mono<Void> deactivate(String queueKey) {
+        return Mono.fromRunnable(() -> {
+            QueueState queue = queues.get(queueKey);
+            if (queue != null) {
+                synchronized (queue) {
+                    queue.active = queue.admitted < queue.seq;
+                }
+            }
+        });
+    }
+
+    private String tokenKey(String queueKey, String token) {
+        return queueKey + ":token:" + token;
+    }
+
+    private static final class QueueState {
+        private long seq;
+        private long admitted;
+        private long lastAdvanceMillis;
+        private volatile boolean active;
+    }
+}
@@ -0,0 +1,148 @@
+package com.booking.waitingroom;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Redis-backed waiting room store shared by every node (default, booking.waiting-room.store=redis)
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "booking.waiting-room.store", havingValue = "redis", matchIfMissing = true)
+public class RedisWaitingRoomStore implements WaitingRoomStore {
+
+    private static final String ACTIVE_QUEUES_KEY = "waiting-room:active";
+
+    // KEYS: seq, admitted, last-advance  ARGV: now millis, rate per second, max burst
+    private static final RedisScript<Long> ADVANCE_SCRIPT = RedisScript.of("""
+            local seq = tonumber(redis.call('GET', KEYS[1]) or '0')
+            local admitted = tonumber(redis.call('GET', KEYS[2]) or '0')
+            local now = tonumber(ARGV[1])
+            local last = tonumber(redis.call('GET', KEYS[3]) or ARGV[1])
+            local budget = math.min(tonumber(ARGV[3]), math.floor((now - last) * tonumber(ARGV[2]) / 1000))
+            if budget > 0 then
+                admitted = math.min(seq, admitted + budget)
+                redis.call('SET', KEYS[2], admitted)
+                redis.call('SET', KEYS[3], now)
+            elseif redis.call('EXISTS', KEYS[3]) == 0 then
+                redis.call('SET', KEYS[3], now)
+            end
+            return admitted
+            """, Long.class);
+
+    // KEYS: active set, seq, admitted  ARGV: queue key
+    private static final RedisScript<Long> DEACTIVATE_SCRIPT = RedisScript.of("""
+            local seq = tonumber(redis.call('GET', KEYS[2]) or '0')
+            local admitted = tonumber(redis.call('GET', KEYS[3]) or '0')
+            if admitted >= seq then
+                return redis.call('SREM', KEYS[1], ARGV[1])
+            end
+            return 0
+            """, Long.class);
+
+    // KEYS: token, admitted  ARGV: -  returns '' if unknown, else "position:admitted:claimed:remaining ttl ms"
+    private static final RedisScript<String> CLAIM_SCRIPT = RedisScript.of("""
+            local position = redis.call('GET', KEYS[1])
+            if not position then
+                return ''
+            end
+            local admitted = redis.call('GET', KEYS[2]) or '0'
+            if tonumber(position) > tonumber(admitted) then
+                return position .. ':' .. admitted .. ':0:0'
+            end
+            local ttl = redis.call('PTTL', KEYS[1])
+            redis.call('DEL', KEYS[1])
+            return position .. ':' .. admitted .. ':1:' .. ttl
+            """, String.class);
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+
+    @Override
+    public Mono<Long> enqueue(String queueKey, String token, Duration tokenTtl) {
+        return redisTemplate.opsForValue()
+                .increment(queueKey + ":seq")
+                .flatMap(position ->
+                    redisTemplate.opsForValue()
+                            .set(tokenKey(queueKey, token), String.valueOf(position), tokenTtl)
+                            .then(redisTemplate.opsForSet().add(ACTIVE_QUEUES_KEY, queueKey))
+                            .thenReturn(position)
+                );
+    }
+
+    @Override
+    public Mono<Long> positionOf(String queueKey, String token) {
+        return redisTemplate.opsForValue()
+                .get(tokenKey(queueKey, token))
+                .map(Long::parseLong);
+    }
+
+    @Override
+    public Mono<Long> admittedUpTo(String queueKey) {
+        return redisTemplate.opsForValue()
+                .get(queueKey + ":admitted")
+                .map(Long::parseLong)
+                .defaultIfEmpty(0L);
+    }
+
+    @Override
+    public Mono<Long> advance(String queueKey, long nowMillis, double ratePerSecond, long maxBurst) {
+        return redisTemplate.execute(
+                        ADVANCE_SCRIPT,
+                        List.of(queueKey + ":seq", queueKey + ":admitted", queueKey + ":last-advance"),
+                        List.of(String.valueOf(nowMillis), String.valueOf(ratePerSecond), String.valueOf(maxBurst))
+                )
+                .next();
+    }
+
+    @Override
+    public Mono<Claim> claim(String queueKey, String token) {
+        return redisTemplate.execute(CLAIM_SCRIPT, List.of(tokenKey(queueKey, token), queueKey + ":admitted"), List.of())
+                .next()
+                .filter(result -> !result.isEmpty())
+                .map(result -> result.split(":"))
+                .map(fields -> new Claim(
+                        Long.parseLong(fields[0]),
+                        Long.parseLong(fields[1]),
+                        fields[2].equals("1"),
+                        Duration.ofMillis(Math.max(0, Long.parseLong(fields[3])))
+                ));
+    }
+
+    @Override
+    public Mono<Void> restore(String queueKey, String token, Claim claim) {
+        if (claim.remaining().isZero()) {
+            return Mono.empty();
+        }
+        // setIfAbsent: never overwrite a token that was somehow re-issued meanwhile
+        return redisTemplate.opsForValue()
+                .setIfAbsent(tokenKey(queueKey, token), String.valueOf(claim.position()), claim.remaining())
+                .then();
+    }
+
+    @Override
+    public Flux<String> activeQueues() {
+        return redisTemplate.opsForSet().members(ACTIVE_QUEUES_KEY);
+    }
+
+    @Override
+    public Mono<Void> deactivate(String queueKey) {
+        return redisTemplate.execute(
+                        DEACTIVATE_SCRIPT,
+                        List.of(ACTIVE_QUEUES_KEY, queueKey + ":seq", queueKey + ":admitted"),
+                        List.of(queueKey)
+                )
+                .then();
+    }
+
+    private String tokenKey(String queueKey, String token) {
+        return queueKey + ":token:" + token;
+    }
+}
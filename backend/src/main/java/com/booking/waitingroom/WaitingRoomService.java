@@ -0,0 +1,182 @@
+package com.booking.waitingroom;
+
+import com.booking.domain.entity.Event;
+import com.booking.domain.repository.EventRepository;
+import com.booking.dto.response.WaitingRoomResponse;
+import com.booking.exception.WaitingRoomTokenException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Virtual waiting room for marquee event dates. Clients join the queue, poll their position,
+ * and may only reserve once the admitted frontier has passed them. The frontier advances at
+ * admit-per-shard-per-second x num_shards, so database load follows shard throughput
+ * instead of raw demand.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class WaitingRoomService {
+
+    private final WaitingRoomStore waitingRoomStore;
+    private final EventRepository eventRepository;
+    private final ConcurrentHashMap<Long, Integer> shardsByEvent = new ConcurrentHashMap<>();
+    private final AtomicBoolean admitting = new AtomicBoolean();
+
+    @Value("${booking.waiting-room.event-ids:}")
+    private List<Long> gatedEventIds;
+
+    @Value("${booking.waiting-room.admit-per-shard-per-second:5}")
+    private double admitPerShardPerSecond;
+
+    @Value("${booking.waiting-room.tick-ms:1000}")
+    private long tickMs;
+
+    @Value("${booking.waiting-room.token-ttl-seconds:900}")
+    private long tokenTtlSeconds;
+
+    public boolean isGated(Long eventId) {
+        return gatedEventIds.contains(eventId);
+    }
+
+    /**
+     * Join the queue for an event date and get a token with its position
+     */
+    public Mono<WaitingRoomResponse> join(Long eventId, LocalDate date, LocalTime startTime) {
+        String queueKey = buildQueueKey(eventId, date, startTime);
+        String token = UUID.randomUUID().toString();
+
+        return waitingRoomStore.enqueue(queueKey, token, Duration.ofSeconds(tokenTtlSeconds))
+                .flatMap(position -> toResponse(eventId, queueKey, token, position));
+    }
+
+    /**
+     * Current position and admission state for a token
+     */
+    public Mono<WaitingRoomResponse> status(Long eventId, LocalDate date, LocalTime startTime, String token) {
+        String queueKey = buildQueueKey(eventId, date, startTime);
+
+        return waitingRoomStore.positionOf(queueKey, token)
+                .switchIfEmpty(Mono.error(new WaitingRoomTokenException("Unknown or expired waiting room token")))
+                .flatMap(position -> toResponse(eventId, queueKey, token, position));
+    }
+
+    /**
+     * Run the reservation work with an admitted token. The token is claimed (checked and removed in one
+     * atomic step) before the work starts, so concurrent requests replaying it are rejected, and put
+     * back if the work fails or the request is cancelled (client gone, timeout) so the holder can retry.
+     */
+    public <T> Mono<T> withAdmittedToken(Long eventId, LocalDate date, LocalTime startTime,
+                                         String token, Supplier<Mono<T>> work) {
+        if (!isGated(eventId)) {
+            return Mono.defer(work);
+        }
+        if (token == null || token.isBlank()) {
+            return Mono.error(new WaitingRoomTokenException(
+                    "Event " + eventId + " requires a waiting room token for " + date + " at " + startTime
+            ));
+        }
+
+        String queueKey = buildQueueKey(eventId, date, startTime);
+        return waitingRoomStore.claim(queueKey, token)
+                .switchIfEmpty(Mono.error(new WaitingRoomTokenException("Unknown, expired or already used waiting room token")))
+                .flatMap(claim -> {
+                    if (!claim.claimed()) {
+                        return Mono.error(new WaitingRoomTokenException(
+                                "Not admitted yet (position " + claim.position() + ", admitted up to " + claim.admittedUpTo() + ")"
+                        ));
+                    }
+                    return Mono.usingWhen(Mono.just(claim),
+                            claimed -> work.get(),
+                            claimed -> Mono.empty(),
+                            (claimed, error) -> restoreToken(queueKey, token, claimed),
+                            claimed -> restoreToken(queueKey, token, claimed));
+                });
+    }
+
+    private Mono<Void> restoreToken(String queueKey, String token, WaitingRoomStore.Claim claim) {
+        return waitingRoomStore.restore(queueKey, token, claim)
+                .onErrorResume(error -> {
+                    log.warn("Failed to restore waiting room token: {}", error.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    /**
+     * Scheduled task that advances every active queue's admitted frontier
+     */
+    @Scheduled(fixedDelayString = "${booking.waiting-room.tick-ms:1000}")
+    public void admitWaiting() {
+        if (gatedEventIds.isEmpty()) {
+            return;
+        }
+
+        if (!admitting.compareAndSet(false, true)) {
+            log.debug("Previous waiting room tick still running, skipping this run");
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        waitingRoomStore.activeQueues()
+                .flatMap(queueKey ->
+                    admitRate(parseEventId(queueKey))
+                            .flatMap(rate -> waitingRoomStore.advance(
+                                    queueKey, now, rate, (long) Math.ceil(rate * tickMs / 1000.0)))
+                            .then(waitingRoomStore.deactivate(queueKey))
+                )
+                .doFinally(signal -> admitting.set(false))
+                .subscribe(
+                        v -> { },
+                        error -> log.error("Error advancing waiting room queues", error)
+                );
+    }
+
+    private Mono<WaitingRoomResponse> toResponse(Long eventId, String queueKey, String token, long position) {
+        return Mono.zip(waitingRoomStore.admittedUpTo(queueKey), admitRate(eventId))
+                .map(tuple -> {
+                    long admittedUpTo = tuple.getT1();
+                    long ahead = Math.max(0, position - admittedUpTo);
+                    return WaitingRoomResponse.builder()
+                            .token(token)
+                            .position(position)
+                            .admittedUpTo(admittedUpTo)
+                            .admitted(ahead == 0)
+                            .estimatedWaitSeconds((long) Math.ceil(ahead / tuple.getT2()))
+                            .build();
+                });
+    }
+
+    private Mono<Double> admitRate(Long eventId) {
+        Integer cached = shardsByEvent.get(eventId);
+        Mono<Integer> numShards = cached != null
+                ? Mono.just(cached)
+                : eventRepository.findById(eventId)
+                        .map(Event::getNumShards)
+                        .defaultIfEmpty(1)
+                        .doOnNext(shards -> shardsByEvent.put(eventId, shards));
+
+        return numShards.map(shards -> Math.max(admitPerShardPerSecond * shards, 0.1));
+    }
+
+    private String buildQueueKey(Long eventId, LocalDate date, LocalTime startTime) {
+        // Slash-separated so CacheService's ":eventId:date:time:" invalidation pattern never matches queue keys
+        return String.format("waiting-room:{%d/%s/%s}", eventId, date, startTime);
+    }
+
+    private Long parseEventId(String queueKey) {
+        return Long.parseLong(queueKey.substring(queueKey.indexOf('{') + 1, queueKey.indexOf('/')));
+    }
+}
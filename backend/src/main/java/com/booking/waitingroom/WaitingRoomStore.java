@@ -0,0 +1,61 @@
+package com.booking.waitingroom;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Queue state for the virtual waiting room. Each queue hands out increasing positions
+ * and tracks an "admitted up to" frontier that the scheduler advances at a fixed rate.
+ */
+public interface WaitingRoomStore {
+
+    /**
+     * Append a token to the queue and return its 1-based position
+     */
+    Mono<Long> enqueue(String queueKey, String token, Duration tokenTtl);
+
+    /**
+     * Position of a token, empty if unknown or expired
+     */
+    Mono<Long> positionOf(String queueKey, String token);
+
+    /**
+     * Highest position currently admitted
+     */
+    Mono<Long> admittedUpTo(String queueKey);
+
+    /**
+     * Advance the admitted frontier by the budget accrued since the last advance.
+     * Safe to call from every node: the elapsed-time bookkeeping is atomic in the store.
+     */
+    Mono<Long> advance(String queueKey, long nowMillis, double ratePerSecond, long maxBurst);
+
+    /**
+     * Atomically check a token against the admitted frontier and, if admitted, remove it, so two
+     * requests holding the same token can never both pass. Empty if the token is unknown or expired.
+     */
+    Mono<Claim> claim(String queueKey, String token);
+
+    /**
+     * Put back a claimed token, with the time it had left, after the work it admitted failed
+     */
+    Mono<Void> restore(String queueKey, String token, Claim claim);
+
+    /**
+     * Queues that have had arrivals and may still have people waiting
+     */
+    Flux<String> activeQueues();
+
+    /**
+     * Drop a queue from the active set if everyone in it has been admitted
+     */
+    Mono<Void> deactivate(String queueKey);
+
+    /**
+     * Outcome of a claim: claimed is false when the token is not admitted yet, in which case it is left in place
+     */
+    record Claim(long position, long admittedUpTo, boolean claimed, Duration remaining) {
+    }
+}
@@ -0,0 +1,101 @@
+package com.booking.warmup;
+
+import com.booking.availability.AvailabilityChangeFeed;
+import com.booking.cache.CacheRegion;
+import com.booking.cache.RedisCircuitBreaker;
+import com.booking.config.ReadReplicaRegistry;
+import com.booking.config.ReopenableConnectionPool;
+import com.booking.sharding.ShardSelector;
+import com.booking.sharding.SoldOutRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Makes a warmed-up node safe to checkpoint with CRaC (-XX:CRaCCheckpointTo, jcmd JDK.checkpoint) and
+ * to restore any number of times. Spring stops every Lifecycle bean before the checkpoint and starts
+ * them again after restore: the web server stops first, then this handler, then Lettuce's connection
+ * factory (which closes and reopens its own connections). Before the checkpoint the LISTEN connection
+ * and every R2DBC pool are closed, since CRaC refuses to checkpoint open sockets. After restore the
+ * pools are reopened, and everything that describes the world at checkpoint time is dropped: the L1
+ * regions and sold-out flags (possibly hours old), the circuit breaker window, and the shard
+ * round-robin counters and random seed, which every node restored from one image would otherwise share.
+ * Readiness then waits for a short re-warm of connections and caches.
+ * On a JVM without CRaC this only runs at startup and shutdown, where it does nothing that matters.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CheckpointRestoreHandler implements SmartLifecycle {
+
+    // Stops after the web server (phase Integer.MAX_VALUE - 2048), before Lettuce (phase 0)
+    private static final int PHASE = 1000;
+    private static final Duration CLOSE_TIMEOUT = Duration.ofSeconds(10);
+
+    private final ObjectProvider<ReopenableConnectionPool> connectionPools;
+    private final ReadReplicaRegistry readReplicaRegistry;
+    private final ObjectProvider<CacheRegion<?>> cacheRegions;
+    private final SoldOutRegistry soldOutRegistry;
+    private final ShardSelector shardSelector;
+    private final RedisCircuitBreaker circuitBreaker;
+    private final AvailabilityChangeFeed availabilityChangeFeed;
+    private final StartupWarmup startupWarmup;
+
+    private volatile boolean running;
+    private volatile boolean stopped;
+
+    @Override
+    public void start() {
+        running = true;
+        if (!stopped) {
+            // First start of this context: nothing was closed
+            return;
+        }
+        stopped = false;
+
+        connectionPools.forEach(ReopenableConnectionPool::reopen);
+        readReplicaRegistry.reopen();
+        cacheRegions.forEach(CacheRegion::invalidateAll);
+        soldOutRegistry.clearAllLocal();
+        shardSelector.resetCounters();
+        circuitBreaker.reset();
+        availabilityChangeFeed.start();
+        startupWarmup.rewarm();
+        log.info("Restored: connection pools reopened, local caches and shard counters reset");
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        stopped = true;
+
+        // The LISTEN connection must be gone before the pools: a checkpoint with its socket open fails
+        availabilityChangeFeed.stop()
+                .thenMany(Flux.fromStream(connectionPools.stream()))
+                .flatMap(ReopenableConnectionPool::close)
+                .then(readReplicaRegistry.close())
+                .timeout(CLOSE_TIMEOUT)
+                .onErrorResume(error -> {
+                    log.warn("Closing connection pools did not finish: {}", error.toString());
+                    return Mono.empty();
+                })
+                .block();
+        log.info("LISTEN connection and connection pools closed");
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+}
@@ -0,0 +1,197 @@
+package com.booking.warmup;
+
+import com.booking.cache.RedisCircuitBreaker;
+import com.booking.config.ReopenableConnectionPool;
+import com.booking.domain.entity.EventDate;
+import com.booking.domain.entity.EventTicketType;
+import com.booking.domain.repository.EventDateRepository;
+import com.booking.domain.repository.EventTicketTypeRepository;
+import com.booking.dto.request.TicketRequest;
+import com.booking.service.EventService;
+import com.booking.service.ReservationService;
+import com.booking.sharding.ShardHealthMonitor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Warms a freshly started node before it reports ready (see {@link WarmupHealthIndicator}):
+ * opens the pooled connections, loads shard availability and event metadata for event dates within
+ * the horizon into L1/Redis, and runs the reservation path a number of times inside transactions that
+ * are always rolled back, so its statements are prepared and its code is JIT-compiled. Those reservations
+ * go to a dedicated warm-up date of each event (reservation-date, in the past so no listing shows it),
+ * never to a real one: even rolled back they lock counter rows that live reservations are waiting on.
+ * Cold code overruns the Redis latency budgets, so the circuit breaker's window is cleared once warm-up ends.
+ * Gives up after timeout-seconds; a node is never held out of rotation by a failing warm-up.
+ * After a CRaC restore only the connections and caches are warmed again, the code already is.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StartupWarmup {
+
+    private static final LocalTime WARMUP_START_TIME = LocalTime.MIDNIGHT;
+
+    private final ObjectProvider<ReopenableConnectionPool> connectionPools;
+    private final EventDateRepository eventDateRepository;
+    private final EventTicketTypeRepository eventTicketTypeRepository;
+    private final EventService eventService;
+    private final ShardHealthMonitor healthMonitor;
+    private final ReservationService reservationService;
+    private final TransactionalOperator transactionalOperator;
+    private final RedisCircuitBreaker circuitBreaker;
+
+    private volatile boolean complete;
+
+    @Value("${booking.warmup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${booking.warmup.horizon-days:7}")
+    private int horizonDays;
+
+    @Value("${booking.warmup.max-event-dates:500}")
+    private int maxEventDates;
+
+    @Value("${booking.warmup.reservation-iterations:200}")
+    private int reservationIterations;
+
+    @Value("${booking.warmup.reservation-date:2000-01-01}")
+    private LocalDate reservationDate;
+
+    @Value("${booking.warmup.timeout-seconds:60}")
+    private long timeoutSeconds;
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        run(true);
+    }
+
+    /**
+     * Called after a CRaC restore: the node reports not ready until its pools and caches are warm again
+     */
+    public void rewarm() {
+        run(false);
+    }
+
+    private void run(boolean exerciseReservations) {
+        if (!enabled) {
+            complete = true;
+            return;
+        }
+
+        complete = false;
+        long startNanos = System.nanoTime();
+        LocalDate today = LocalDate.now();
+
+        primeConnectionPools()
+                .then(eventDateRepository.findBetween(today, today.plusDays(horizonDays), maxEventDates).collectList())
+                .flatMap(eventDates -> loadTicketTypes(eventDates)
+                        .flatMap(ticketTypes -> preloadShardAvailability(eventDates, ticketTypes)
+                                .then(preloadEventMetadata(eventDates, today))
+                                .then(exerciseReservations ? exerciseReservationPath(eventDates, ticketTypes) : Mono.empty())
+                                .thenReturn(eventDates.size())))
+                .timeout(Duration.ofSeconds(timeoutSeconds))
+                .doFinally(signal -> {
+                    circuitBreaker.reset();
+                    complete = true;
+                })
+                .subscribe(
+                        eventDates -> log.info("{} finished in {} ms ({} event dates)",
+                                exerciseReservations ? "Warm-up" : "Post-restore warm-up",
+                                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos), eventDates),
+                        error -> log.warn("Warm-up did not finish, accepting traffic anyway: {}", error.toString())
+                );
+    }
+
+    private Mono<Integer> primeConnectionPools() {
+        return Flux.fromStream(connectionPools.stream())
+                .flatMap(ReopenableConnectionPool::warmup)
+                .reduce(0, Integer::sum)
+                .doOnNext(connections -> log.debug("Warm-up opened {} connections", connections));
+    }
+
+    private Mono<Map<Long, List<Long>>> loadTicketTypes(List<EventDate> eventDates) {
+        return Flux.fromIterable(eventDates)
+                .map(EventDate::getEventId)
+                .distinct()
+                .flatMap(eventId -> eventTicketTypeRepository.findByEventId(eventId)
+                        .map(EventTicketType::getTicketTypeId)
+                        .collectList()
+                        .map(ticketTypeIds -> Map.entry(eventId, ticketTypeIds)))
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue);
+    }
+
+    private Mono<Void> preloadShardAvailability(List<EventDate> eventDates, Map<Long, List<Long>> ticketTypes) {
+        return Flux.fromIterable(eventDates)
+                .flatMap(eventDate -> healthMonitor
+                        .getAvailableShards(eventDate.getEventId(), eventDate.getDate(), eventDate.getStartTime(), null)
+                        .thenMany(Flux.fromIterable(ticketTypes.getOrDefault(eventDate.getEventId(), List.of())))
+                        .flatMap(ticketTypeId -> healthMonitor.getAvailableShards(
+                                eventDate.getEventId(), eventDate.getDate(), eventDate.getStartTime(), ticketTypeId))
+                        .then(), 8)
+                .then();
+    }
+
+    private Mono<Void> preloadEventMetadata(List<EventDate> eventDates, LocalDate today) {
+        return eventService.getEventsPage(null, 20)
+                .then(eventService.countEvents())
+                .thenMany(Flux.fromIterable(eventDates).map(EventDate::getEventId).distinct())
+                .flatMap(eventId -> eventService.getEventDetailsPage(eventId, today, today.plusDays(horizonDays), null, 20), 4)
+                .then();
+    }
+
+    /**
+     * Reservations against the warm-up date of each event, each in a transaction marked rollback-only,
+     * so no capacity is taken and no outbox row ever commits
+     */
+    private Mono<Void> exerciseReservationPath(List<EventDate> eventDates, Map<Long, List<Long>> ticketTypes) {
+        List<Long> eventIds = eventDates.stream()
+                .map(EventDate::getEventId)
+                .distinct()
+                .filter(eventId -> !ticketTypes.getOrDefault(eventId, List.of()).isEmpty())
+                .toList();
+        if (eventIds.isEmpty()) {
+            return Mono.empty();
+        }
+
+        return Flux.fromIterable(eventIds)
+                .concatMap(eventId -> eventDateRepository.insertIfAbsent(eventId, reservationDate, WARMUP_START_TIME))
+                .thenMany(Flux.fromStream(IntStream.range(0, reservationIterations).boxed()))
+                .concatMap(i -> {
+                    Long eventId = eventIds.get(i % eventIds.size());
+                    List<TicketRequest> tickets = List.of(TicketRequest.builder()
+                            .ticketTypeId(ticketTypes.get(eventId).get(0))
+                            .quantity(1)
+                            .build());
+
+                    return transactionalOperator.execute(status -> {
+                                status.setRollbackOnly();
+                                return reservationService.createReservation(
+                                        eventId, reservationDate, WARMUP_START_TIME, tickets);
+                            })
+                            // Failures exercise the error path just as well
+                            .onErrorResume(e -> Mono.empty())
+                            .then();
+                })
+                .then();
+    }
+}
@@ -0,0 +1,26 @@
+package com.booking.warmup;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * OUT_OF_SERVICE until {@link StartupWarmup} has finished; part of the readiness group
+ */
+@Component
+@RequiredArgsConstructor
+public class WarmupHealthIndicator implements HealthIndicator {
+
+    private final StartupWarmup startupWarmup;
+
+    @Override
+    public Health health() {
+        if (startupWarmup.isComplete()) {
+            return Health.up().build();
+        }
+        return Health.outOfService()
+                .withDetail("reason", "Startup warm-up in progress")
+                .build();
+    }
+}
@@ -0,0 +1,38 @@
+-- V10: Publish consumption counter changes over LISTEN/NOTIFY
+-- Every node LISTENs on availability_changes and refreshes its local shard state from the
+-- payloads, so capacity changes propagate without polling and without Redis.
+-- Notifications are delivered on commit only, so rolled-back reservations never show up.
+
+CREATE OR REPLACE FUNCTION notify_consumption_change()
+RETURNS TRIGGER AS $$
+DECLARE
+    -- consumption has no ticket_type_id column, so read it through jsonb instead of NEW directly
+    v_row JSONB := to_jsonb(NEW);
+BEGIN
+    PERFORM pg_notify('availability_changes', json_build_object(
+        'eventId', NEW.event_id,
+        'date', NEW.date,
+        'startTime', NEW.start_time,
+        'ticketTypeId', (v_row ->> 'ticket_type_id')::BIGINT,
+        'shardId', NEW.shard_id,
+        'shardCurrent', NEW.shard_current,
+        'shardMax', NEW.shard_max,
+        'delta', NEW.shard_current - OLD.shard_current
+    )::text);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER consumption_change_notify
+    AFTER UPDATE OF shard_current ON consumption
+    FOR EACH ROW
+    WHEN (OLD.shard_current IS DISTINCT FROM NEW.shard_current)
+    EXECUTE FUNCTION notify_consumption_change();
+
+CREATE TRIGGER consumption_tt_change_notify
+    AFTER UPDATE OF shard_current ON consumption_tt
+    FOR EACH ROW
+    WHEN (OLD.shard_current IS DISTINCT FROM NEW.shard_current)
+    EXECUTE FUNCTION notify_consumption_change();
+
+COMMENT ON FUNCTION notify_consumption_change() IS 'Sends per-shard counter deltas on the availability_changes channel';
@@ -0,0 +1,184 @@
+-- V11: Partition reservation and tickets by event date (one range partition per month)
+-- Reservations for past event dates are finished business, so whole months can be detached
+-- or dropped instead of deleting rows, and the hot partitions and their indexes stay small.
+-- A partitioned table's unique keys must include the partition key, so the primary keys become
+-- (id, date) and dependent tables keep reservation ids without a foreign key.
+
+-- Dependents can no longer reference reservation(id) alone
+ALTER TABLE tickets DROP CONSTRAINT tickets_reservation_id_fkey;
+ALTER TABLE reservation_allocation DROP CONSTRAINT reservation_allocation_reservation_id_fkey;
+ALTER TABLE ticket_materialization_queue DROP CONSTRAINT ticket_materialization_queue_reservation_id_fkey;
+
+-- Keep the existing id sequences; they would otherwise be dropped with the old tables
+ALTER TABLE reservation RENAME TO reservation_unpartitioned;
+ALTER TABLE tickets RENAME TO tickets_unpartitioned;
+ALTER SEQUENCE reservation_id_seq OWNED BY NONE;
+ALTER SEQUENCE tickets_id_seq OWNED BY NONE;
+
+CREATE TABLE reservation (
+    id BIGINT NOT NULL DEFAULT nextval('reservation_id_seq'),
+    event_id BIGINT NOT NULL REFERENCES events(id),
+    date DATE NOT NULL,
+    start_time TIME NOT NULL,
+    payment_ref VARCHAR(255),
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING' CHECK (status IN ('PENDING', 'CONFIRMED', 'EXPIRED', 'CANCELLED')),
+    created_at TIMESTAMP NOT NULL DEFAULT NOW(),
+    expires_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL DEFAULT NOW(),
+    ticket_count INTEGER NOT NULL DEFAULT 0 CHECK (ticket_count >= 0),
+    FOREIGN KEY (event_id, date, start_time) REFERENCES event_date(event_id, date, start_time)
+) PARTITION BY RANGE (date);
+
+CREATE TABLE tickets (
+    id BIGINT NOT NULL DEFAULT nextval('tickets_id_seq'),
+    event_id BIGINT NOT NULL,
+    date DATE NOT NULL,
+    start_time TIME NOT NULL,
+    ticket_type_id BIGINT NOT NULL REFERENCES ticket_type(id),
+    reservation_id BIGINT NOT NULL,
+    shard_id INTEGER NOT NULL CHECK (shard_id >= 0),
+    created_at TIMESTAMP NOT NULL DEFAULT NOW(),
+    FOREIGN KEY (event_id, date, start_time) REFERENCES event_date(event_id, date, start_time)
+) PARTITION BY RANGE (date);
+
+-- Catch-all for event dates beyond the pre-created months
+CREATE TABLE reservation_default PARTITION OF reservation DEFAULT;
+CREATE TABLE tickets_default PARTITION OF tickets DEFAULT;
+
+-- Creates any missing monthly partitions between two dates (inclusive).
+-- Rows already sitting in the default partition for a new month are moved into it.
+CREATE OR REPLACE FUNCTION create_booking_partitions(
+    p_from DATE,
+    p_to DATE
+) RETURNS INTEGER AS $$
+DECLARE
+    v_month DATE := date_trunc('month', p_from)::DATE;
+    v_next DATE;
+    v_parent TEXT;
+    v_partition TEXT;
+    v_created INTEGER := 0;
+BEGIN
+    -- Only one node does partition maintenance at a time
+    IF NOT pg_try_advisory_xact_lock(hashtext('booking_partitions')) THEN
+        RETURN 0;
+    END IF;
+
+    WHILE v_month <= p_to LOOP
+        v_next := (v_month + INTERVAL '1 month')::DATE;
+
+        FOREACH v_parent IN ARRAY ARRAY['reservation', 'tickets'] LOOP
+            v_partition := v_parent || '_p' || to_char(v_month, 'YYYYMM');
+
+            IF to_regclass(v_partition) IS NULL THEN
+                EXECUTE format('CREATE TABLE %I (LIKE %I INCLUDING DEFAULTS INCLUDING CONSTRAINTS)', v_partition, v_parent);
+                EXECUTE format('WITH moved AS (DELETE FROM %I WHERE date >= %L AND date < %L RETURNING *) INSERT INTO %I SELECT * FROM moved',
+                               v_parent || '_default', v_month, v_next, v_partition);
+                EXECUTE format('ALTER TABLE %I ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                               v_parent, v_partition, v_month, v_next);
+                v_created := v_created + 1;
+            END IF;
+        END LOOP;
+
+        v_month := v_next;
+    END LOOP;
+
+    RETURN v_created;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Detaches (and optionally drops) monthly partitions that end on or before p_before.
+-- Allocation and materialization rows of the retired reservations are deleted first.
+-- Returns the name of every partition retired.
+CREATE OR REPLACE FUNCTION retire_booking_partitions(
+    p_before DATE,
+    p_drop BOOLEAN
+) RETURNS SETOF TEXT AS $$
+DECLARE
+    v_partition RECORD;
+BEGIN
+    IF NOT pg_try_advisory_xact_lock(hashtext('booking_partitions')) THEN
+        RETURN;
+    END IF;
+
+    FOR v_partition IN
+        SELECT c.relname AS name, p.relname AS parent
+        FROM pg_inherits i
+        JOIN pg_class c ON c.oid = i.inhrelid
+        JOIN pg_class p ON p.oid = i.inhparent
+        WHERE p.relname IN ('reservation', 'tickets')
+          AND c.relname ~ '_p[0-9]{6}$'
+          AND (to_date(right(c.relname, 6), 'YYYYMM') + INTERVAL '1 month')::DATE <= p_before
+        ORDER BY c.relname
+    LOOP
+        IF v_partition.parent = 'reservation' THEN
+            EXECUTE format('DELETE FROM reservation_allocation a USING %I r WHERE a.reservation_id = r.id', v_partition.name);
+            EXECUTE format('DELETE FROM ticket_materialization_queue q USING %I r WHERE q.reservation_id = r.id', v_partition.name);
+        END IF;
+
+        EXECUTE format('ALTER TABLE %I DETACH PARTITION %I', v_partition.parent, v_partition.name);
+
+        IF p_drop THEN
+            EXECUTE format('DROP TABLE %I', v_partition.name);
+        END IF;
+
+        RETURN NEXT v_partition.name;
+    END LOOP;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Partitions for existing data plus the next year
+SELECT create_booking_partitions(
+    LEAST(
+        CURRENT_DATE,
+        COALESCE((SELECT MIN(date) FROM reservation_unpartitioned), CURRENT_DATE),
+        COALESCE((SELECT MIN(date) FROM tickets_unpartitioned), CURRENT_DATE)
+    ),
+    (CURRENT_DATE + INTERVAL '12 months')::DATE
+);
+
+INSERT INTO reservation (id, event_id, date, start_time, payment_ref, status, created_at, expires_at, updated_at, ticket_count)
+SELECT id, event_id, date, start_time, payment_ref, status, created_at, expires_at, updated_at, ticket_count
+FROM reservation_unpartitioned;
+
+INSERT INTO tickets (id, event_id, date, start_time, ticket_type_id, reservation_id, shard_id, created_at)
+SELECT id, event_id, date, start_time, ticket_type_id, reservation_id, shard_id, created_at
+FROM tickets_unpartitioned;
+
+DROP TABLE tickets_unpartitioned;
+DROP TABLE reservation_unpartitioned;
+
+ALTER SEQUENCE reservation_id_seq OWNED BY reservation.id;
+ALTER SEQUENCE tickets_id_seq OWNED BY tickets.id;
+
+-- Keys and indexes are built after the copy; each partition gets its own copy of every index
+ALTER TABLE reservation ADD PRIMARY KEY (id, date);
+ALTER TABLE tickets ADD PRIMARY KEY (id, date);
+
+CREATE INDEX idx_reservation_status_expires
+ON reservation(status, expires_at)
+WHERE status = 'PENDING';
+
+CREATE INDEX idx_reservation_event_date
+ON reservation(event_id, date, start_time);
+
+CREATE INDEX idx_reservation_status
+ON reservation(status);
+
+CREATE INDEX idx_tickets_reservation
+ON tickets(reservation_id);
+
+CREATE INDEX idx_tickets_event_date
+ON tickets(event_id, date, start_time);
+
+CREATE INDEX idx_tickets_type
+ON tickets(ticket_type_id);
+
+COMMENT ON TABLE reservation IS 'Stores reservation records with payment status, range partitioned by event date (monthly)';
+COMMENT ON TABLE tickets IS 'Individual ticket records linked to reservations, range partitioned by event date (monthly)';
+COMMENT ON COLUMN reservation.expires_at IS 'Timestamp when unpaid reservation expires (typically 60 seconds after creation)';
+COMMENT ON COLUMN reservation.status IS 'Reservation status: PENDING (awaiting payment), CONFIRMED (paid), EXPIRED (timeout), CANCELLED (manually cancelled)';
+COMMENT ON COLUMN reservation.ticket_count IS 'Total tickets in the reservation, written at creation so confirmation never has to count tickets';
+COMMENT ON COLUMN tickets.shard_id IS 'Tracks which shard was used for this ticket, enables precise counter restoration on expiry';
+COMMENT ON INDEX idx_reservation_status_expires IS 'Partial index for fast expiry cleanup - only PENDING reservations';
+COMMENT ON FUNCTION create_booking_partitions IS 'Creates missing monthly reservation/tickets partitions, moving matching rows out of the default partition';
+COMMENT ON FUNCTION retire_booking_partitions IS 'Detaches (optionally drops) reservation/tickets partitions for event dates before a cutoff';
@@ -0,0 +1,37 @@
+-- V12: Trim indexes to the query shapes the repositories actually run
+-- Every extra index costs each counter UPDATE and ticket INSERT, and any index containing
+-- shard_current makes counter updates non-HOT (a new index entry per increment).
+--
+-- Remaining access paths:
+--   consumption / consumption_tt  -> primary key (event_id, date, start_time[, ticket_type_id], shard_id);
+--                                    availability scans filter shard_current on the few rows per event date
+--   reservation                   -> primary key (id, date) for id lookups, idx_reservation_status_expires for expiry
+--   tickets                       -> idx_tickets_reservation for per-reservation lookups
+--   event_date / event_ticket_type -> primary keys (leading event_id)
+
+-- Counter tables: primary key prefixes cover every lookup; these only added shard_current
+DROP INDEX IF EXISTS idx_consumption_current;
+DROP INDEX IF EXISTS idx_consumption_availability;
+DROP INDEX IF EXISTS idx_consumption_tt_current;
+DROP INDEX IF EXISTS idx_consumption_tt_availability;
+
+-- Reservation: status alone is low-cardinality and never queried without expires_at;
+-- event date lookups prune to one partition and have no hot-path caller
+DROP INDEX IF EXISTS idx_reservation_status;
+DROP INDEX IF EXISTS idx_reservation_event_date;
+
+-- Tickets: write-only apart from per-reservation lookups
+DROP INDEX IF EXISTS idx_tickets_event_date;
+DROP INDEX IF EXISTS idx_tickets_type;
+
+-- Prefixes of the primary keys
+DROP INDEX IF EXISTS idx_event_date_range;
+DROP INDEX IF EXISTS idx_event_ticket_type_event;
+
+-- Unused (no query filters event dates without event_id)
+DROP INDEX IF EXISTS idx_event_date_temporal;
+
+-- Leave free space on each page so a counter update can put the new row version on the same
+-- page (HOT), instead of touching the primary key. Applies to pages written from now on.
+ALTER TABLE consumption SET (fillfactor = 70);
+ALTER TABLE consumption_tt SET (fillfactor = 70);
@@ -0,0 +1,171 @@
+-- V13: Materialized availability summary per event date (and per ticket type)
+-- Counter updates only append a delta row (no shared row to lock on the reservation path);
+-- a background job folds deltas into availability_summary in batches, and a periodic
+-- reconciliation recomputes the summary from the shard rows to correct any drift.
+
+CREATE TABLE availability_summary (
+    event_id BIGINT NOT NULL,
+    date DATE NOT NULL,
+    start_time TIME NOT NULL,
+    ticket_type_id BIGINT NOT NULL DEFAULT 0,
+    total_capacity INTEGER NOT NULL,
+    remaining INTEGER NOT NULL,
+    updated_at TIMESTAMP NOT NULL DEFAULT NOW(),
+    PRIMARY KEY (event_id, date, start_time, ticket_type_id),
+    FOREIGN KEY (event_id, date, start_time) REFERENCES event_date(event_id, date, start_time) ON DELETE CASCADE
+);
+
+-- Append-only; folded and deleted by apply_availability_deltas()
+CREATE TABLE availability_delta (
+    id BIGSERIAL PRIMARY KEY,
+    event_id BIGINT NOT NULL,
+    date DATE NOT NULL,
+    start_time TIME NOT NULL,
+    ticket_type_id BIGINT NOT NULL,
+    capacity_delta INTEGER NOT NULL,
+    remaining_delta INTEGER NOT NULL
+);
+
+CREATE OR REPLACE FUNCTION record_availability_delta()
+RETURNS TRIGGER AS $$
+DECLARE
+    v_row JSONB := to_jsonb(NEW);
+    v_old_max INTEGER := 0;
+    v_old_remaining INTEGER := 0;
+BEGIN
+    -- Ticket types without a per-type limit have no meaningful remaining capacity
+    IF NEW.shard_max IS NULL THEN
+        RETURN NULL;
+    END IF;
+
+    IF TG_OP = 'UPDATE' THEN
+        IF OLD.shard_max IS NOT NULL THEN
+            v_old_max := OLD.shard_max;
+            v_old_remaining := OLD.shard_max - OLD.shard_current;
+        END IF;
+    END IF;
+
+    INSERT INTO availability_delta (event_id, date, start_time, ticket_type_id, capacity_delta, remaining_delta)
+    VALUES (
+        NEW.event_id,
+        NEW.date,
+        NEW.start_time,
+        COALESCE((v_row ->> 'ticket_type_id')::BIGINT, 0),
+        NEW.shard_max - v_old_max,
+        (NEW.shard_max - NEW.shard_current) - v_old_remaining
+    );
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER consumption_availability_delta
+    AFTER INSERT OR UPDATE OF shard_current, shard_max ON consumption
+    FOR EACH ROW
+    EXECUTE FUNCTION record_availability_delta();
+
+CREATE TRIGGER consumption_tt_availability_delta
+    AFTER INSERT OR UPDATE OF shard_current, shard_max ON consumption_tt
+    FOR EACH ROW
+    EXECUTE FUNCTION record_availability_delta();
+
+-- Folds up to p_limit deltas into the summary. Returns the number of deltas applied.
+-- Serialized with reconciliation by an advisory lock, so a recompute never races a fold.
+CREATE OR REPLACE FUNCTION apply_availability_deltas(
+    p_limit INTEGER
+) RETURNS INTEGER AS $$
+DECLARE
+    v_applied INTEGER;
+BEGIN
+    IF NOT pg_try_advisory_xact_lock(hashtext('availability_summary')) THEN
+        RETURN 0;
+    END IF;
+
+    WITH batch AS (
+        DELETE FROM availability_delta
+        WHERE id IN (SELECT id FROM availability_delta ORDER BY id LIMIT p_limit)
+        RETURNING event_id, date, start_time, ticket_type_id, capacity_delta, remaining_delta
+    ), folded AS (
+        SELECT b.event_id, b.date, b.start_time, b.ticket_type_id,
+               SUM(b.capacity_delta)::INTEGER AS capacity_delta,
+               SUM(b.remaining_delta)::INTEGER AS remaining_delta
+        FROM batch b
+        -- Deltas for event dates deleted since are dropped
+        JOIN event_date ed ON ed.event_id = b.event_id AND ed.date = b.date AND ed.start_time = b.start_time
+        GROUP BY b.event_id, b.date, b.start_time, b.ticket_type_id
+    ), upserted AS (
+        INSERT INTO availability_summary AS s (event_id, date, start_time, ticket_type_id, total_capacity, remaining)
+        SELECT event_id, date, start_time, ticket_type_id, capacity_delta, remaining_delta
+        FROM folded
+        ON CONFLICT (event_id, date, start_time, ticket_type_id) DO UPDATE
+        SET total_capacity = s.total_capacity + EXCLUDED.total_capacity,
+            remaining = s.remaining + EXCLUDED.remaining,
+            updated_at = NOW()
+        RETURNING 1
+    )
+    SELECT COUNT(*) INTO v_applied FROM batch;
+
+    RETURN v_applied;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Recomputes the summary of upcoming event dates from the shard rows, net of deltas not yet
+-- folded (they are already in the counters). Returns the number of summary rows corrected.
+CREATE OR REPLACE FUNCTION reconcile_availability_summary(
+    p_from DATE
+) RETURNS INTEGER AS $$
+DECLARE
+    v_corrected INTEGER;
+BEGIN
+    -- Waits for an in-flight fold rather than skipping, so the recompute sees its result
+    PERFORM pg_advisory_xact_lock(hashtext('availability_summary'));
+
+    WITH actual AS (
+        SELECT event_id, date, start_time, 0::BIGINT AS ticket_type_id,
+               SUM(shard_max)::INTEGER AS total_capacity,
+               SUM(shard_max - shard_current)::INTEGER AS remaining
+        FROM consumption
+        WHERE date >= p_from
+        GROUP BY event_id, date, start_time
+        UNION ALL
+        SELECT event_id, date, start_time, ticket_type_id,
+               SUM(shard_max)::INTEGER,
+               SUM(shard_max - shard_current)::INTEGER
+        FROM consumption_tt
+        WHERE date >= p_from AND shard_max IS NOT NULL
+        GROUP BY event_id, date, start_time, ticket_type_id
+    ), pending AS (
+        SELECT event_id, date, start_time, ticket_type_id,
+               SUM(capacity_delta)::INTEGER AS capacity_delta,
+               SUM(remaining_delta)::INTEGER AS remaining_delta
+        FROM availability_delta
+        WHERE date >= p_from
+        GROUP BY event_id, date, start_time, ticket_type_id
+    ), corrected AS (
+        INSERT INTO availability_summary AS s (event_id, date, start_time, ticket_type_id, total_capacity, remaining)
+        SELECT a.event_id, a.date, a.start_time, a.ticket_type_id,
+               a.total_capacity - COALESCE(p.capacity_delta, 0),
+               a.remaining - COALESCE(p.remaining_delta, 0)
+        FROM actual a
+        LEFT JOIN pending p USING (event_id, date, start_time, ticket_type_id)
+        -- Event dates whose shards are all still pending are left to the fold
+        WHERE a.total_capacity - COALESCE(p.capacity_delta, 0) > 0
+        ON CONFLICT (event_id, date, start_time, ticket_type_id) DO UPDATE
+        SET total_capacity = EXCLUDED.total_capacity,
+            remaining = EXCLUDED.remaining,
+            updated_at = NOW()
+        WHERE (s.total_capacity, s.remaining) IS DISTINCT FROM (EXCLUDED.total_capacity, EXCLUDED.remaining)
+        RETURNING 1
+    )
+    SELECT COUNT(*) INTO v_corrected FROM corrected;
+
+    RETURN v_corrected;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Initial summary for existing event dates
+SELECT reconcile_availability_summary('-infinity'::DATE);
+
+COMMENT ON TABLE availability_summary IS 'Remaining and total capacity per event date (ticket_type_id 0) and per limited ticket type, maintained from availability_delta';
+COMMENT ON TABLE availability_delta IS 'Capacity changes recorded by consumption triggers, waiting to be folded into availability_summary';
+COMMENT ON FUNCTION apply_availability_deltas IS 'Folds a batch of availability deltas into availability_summary';
+COMMENT ON FUNCTION reconcile_availability_summary IS 'Recomputes availability_summary from consumption shards and corrects drift';
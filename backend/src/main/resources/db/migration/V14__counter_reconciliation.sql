@@ -0,0 +1,94 @@
+-- V14: Counter reconciliation
+-- Recomputes what each consumption / consumption_tt shard should hold from the allocations of
+-- PENDING and CONFIRMED reservations, one event date per call, and repairs the difference.
+
+-- Active reservations of one event date (the reconciler's only query shape on reservation);
+-- EXPIRED and CANCELLED rows drop out of the index
+CREATE INDEX idx_reservation_active_event_date
+ON reservation(event_id, date, start_time)
+WHERE status IN ('PENDING', 'CONFIRMED');
+
+-- The reconciler walks upcoming event dates in (date, start_time, event_id) order
+CREATE INDEX idx_event_date_upcoming
+ON event_date(date, start_time, event_id);
+
+-- Returns one row per drifted shard (ticket_type_id NULL for the total counters).
+-- Each repair is conditional on the counter still holding the value the drift was computed
+-- from, so a reservation committing concurrently is never overwritten; that shard is simply
+-- left for the next pass.
+CREATE OR REPLACE FUNCTION reconcile_event_date_counters(
+    p_event_id BIGINT,
+    p_date DATE,
+    p_start_time TIME,
+    p_repair BOOLEAN
+) RETURNS TABLE(
+    ticket_type_id BIGINT,
+    shard_id INTEGER,
+    observed INTEGER,
+    expected INTEGER,
+    repaired BOOLEAN
+) AS $$
+#variable_conflict use_column
+BEGIN
+    -- Another node is reconciling this event date
+    IF NOT pg_try_advisory_xact_lock(hashtext(format('reconcile:%s:%s:%s', p_event_id, p_date, p_start_time))) THEN
+        RETURN;
+    END IF;
+
+    RETURN QUERY
+    WITH held AS (
+        SELECT a.shard_id, SUM(a.quantity)::INTEGER AS quantity
+        FROM reservation r
+        JOIN reservation_allocation a ON a.reservation_id = r.id
+        WHERE r.event_id = p_event_id AND r.date = p_date AND r.start_time = p_start_time
+          AND r.status IN ('PENDING', 'CONFIRMED')
+        GROUP BY a.shard_id
+    ), drift AS (
+        SELECT c.shard_id, c.shard_current AS observed, COALESCE(h.quantity, 0) AS expected
+        FROM consumption c
+        LEFT JOIN held h ON h.shard_id = c.shard_id
+        WHERE c.event_id = p_event_id AND c.date = p_date AND c.start_time = p_start_time
+          AND c.shard_current <> COALESCE(h.quantity, 0)
+    ), fixed AS (
+        UPDATE consumption c
+        SET shard_current = d.expected, updated_at = NOW()
+        FROM drift d
+        WHERE p_repair
+          AND c.event_id = p_event_id AND c.date = p_date AND c.start_time = p_start_time
+          AND c.shard_id = d.shard_id AND c.shard_current = d.observed
+        RETURNING c.shard_id
+    )
+    SELECT NULL::BIGINT, d.shard_id, d.observed, d.expected, EXISTS (SELECT 1 FROM fixed f WHERE f.shard_id = d.shard_id)
+    FROM drift d;
+
+    RETURN QUERY
+    WITH held AS (
+        SELECT a.ticket_type_id, a.shard_id, SUM(a.quantity)::INTEGER AS quantity
+        FROM reservation r
+        JOIN reservation_allocation a ON a.reservation_id = r.id
+        WHERE r.event_id = p_event_id AND r.date = p_date AND r.start_time = p_start_time
+          AND r.status IN ('PENDING', 'CONFIRMED')
+        GROUP BY a.ticket_type_id, a.shard_id
+    ), drift AS (
+        SELECT c.ticket_type_id, c.shard_id, c.shard_current AS observed, COALESCE(h.quantity, 0) AS expected
+        FROM consumption_tt c
+        LEFT JOIN held h ON h.ticket_type_id = c.ticket_type_id AND h.shard_id = c.shard_id
+        WHERE c.event_id = p_event_id AND c.date = p_date AND c.start_time = p_start_time
+          AND c.shard_current <> COALESCE(h.quantity, 0)
+    ), fixed AS (
+        UPDATE consumption_tt c
+        SET shard_current = d.expected, updated_at = NOW()
+        FROM drift d
+        WHERE p_repair
+          AND c.event_id = p_event_id AND c.date = p_date AND c.start_time = p_start_time
+          AND c.ticket_type_id = d.ticket_type_id AND c.shard_id = d.shard_id AND c.shard_current = d.observed
+        RETURNING c.ticket_type_id, c.shard_id
+    )
+    SELECT d.ticket_type_id, d.shard_id, d.observed, d.expected,
+           EXISTS (SELECT 1 FROM fixed f WHERE f.ticket_type_id = d.ticket_type_id AND f.shard_id = d.shard_id)
+    FROM drift d;
+END;
+$$ LANGUAGE plpgsql;
+
+COMMENT ON INDEX idx_reservation_active_event_date IS 'Supports counter reconciliation - active reservations of one event date';
+COMMENT ON FUNCTION reconcile_event_date_counters IS 'Compares shard counters of one event date with active reservation allocations and repairs drift';
@@ -0,0 +1,62 @@
+-- V15: Publish availability changes from the outbox relay instead of per-row triggers
+-- A transaction that has called pg_notify takes a database-wide lock while it commits, so the V10
+-- per-row triggers made every reservation commit queue behind every other one. Reservation
+-- transactions no longer NOTIFY: the outbox relay calls notify_availability() once per batch,
+-- which sends one notification per touched counter (event date, or event date and ticket type)
+-- carrying its currently available shards, however many rows the batch changed.
+
+DROP TRIGGER IF EXISTS consumption_change_notify ON consumption;
+DROP TRIGGER IF EXISTS consumption_tt_change_notify ON consumption_tt;
+DROP FUNCTION IF EXISTS notify_consumption_change();
+
+CREATE OR REPLACE FUNCTION notify_availability(
+    p_event_ids BIGINT[],
+    p_dates DATE[],
+    p_start_times TIME[],
+    p_released BOOLEAN[]
+)
+RETURNS INTEGER AS $$
+DECLARE
+    v_payload TEXT;
+    v_sent INTEGER := 0;
+BEGIN
+    FOR v_payload IN
+        WITH touched AS (
+            SELECT event_id, date, start_time, bool_or(released) AS released
+            FROM unnest(p_event_ids, p_dates, p_start_times, p_released) AS t(event_id, date, start_time, released)
+            GROUP BY event_id, date, start_time
+        ),
+        shards AS (
+            -- Same availability rules as the findAvailableShards queries
+            SELECT c.event_id, c.date, c.start_time, NULL::BIGINT AS ticket_type_id, c.shard_id,
+                   c.shard_current < c.shard_max AS available
+            FROM consumption c
+            JOIN touched t USING (event_id, date, start_time)
+            UNION ALL
+            SELECT c.event_id, c.date, c.start_time, c.ticket_type_id, c.shard_id,
+                   c.shard_max IS NOT NULL AND c.shard_current < c.shard_max
+            FROM consumption_tt c
+            JOIN touched t USING (event_id, date, start_time)
+        )
+        SELECT json_build_object(
+            'eventId', s.event_id,
+            'date', s.date,
+            'startTime', s.start_time,
+            'ticketTypeId', s.ticket_type_id,
+            'released', t.released,
+            'availableShards', COALESCE(json_agg(s.shard_id ORDER BY s.shard_id) FILTER (WHERE s.available), '[]'::json)
+        )::text
+        FROM shards s
+        JOIN touched t USING (event_id, date, start_time)
+        GROUP BY s.event_id, s.date, s.start_time, s.ticket_type_id, t.released
+    LOOP
+        PERFORM pg_notify('availability_changes', v_payload);
+        v_sent := v_sent + 1;
+    END LOOP;
+
+    RETURN v_sent;
+END;
+$$ LANGUAGE plpgsql;
+
+COMMENT ON FUNCTION notify_availability(BIGINT[], DATE[], TIME[], BOOLEAN[]) IS
+    'Sends the available shards of every counter of the given event dates on the availability_changes channel';
@@ -0,0 +1,67 @@
+-- V16: Global reservation id -> event date lookup
+-- Since V11 reservation is partitioned by date and its key is (id, date), but the API addresses
+-- reservations by id alone. A lookup by id only has to probe the id index of every partition.
+-- reservation_date maps each id to its date, so statements can resolve the date first and let
+-- the executor prune to the one partition that holds the row.
+
+CREATE TABLE reservation_date (
+    id BIGINT PRIMARY KEY,
+    date DATE NOT NULL
+);
+
+INSERT INTO reservation_date (id, date)
+SELECT id, date FROM reservation;
+
+CREATE OR REPLACE FUNCTION record_reservation_date()
+RETURNS TRIGGER AS $$
+BEGIN
+    INSERT INTO reservation_date (id, date) VALUES (NEW.id, NEW.date);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER reservation_date_insert
+    AFTER INSERT ON reservation
+    FOR EACH ROW
+    EXECUTE FUNCTION record_reservation_date();
+
+-- Same as V11, plus the lookup rows of the retired reservations
+CREATE OR REPLACE FUNCTION retire_booking_partitions(
+    p_before DATE,
+    p_drop BOOLEAN
+) RETURNS SETOF TEXT AS $$
+DECLARE
+    v_partition RECORD;
+BEGIN
+    IF NOT pg_try_advisory_xact_lock(hashtext('booking_partitions')) THEN
+        RETURN;
+    END IF;
+
+    FOR v_partition IN
+        SELECT c.relname AS name, p.relname AS parent
+        FROM pg_inherits i
+        JOIN pg_class c ON c.oid = i.inhrelid
+        JOIN pg_class p ON p.oid = i.inhparent
+        WHERE p.relname IN ('reservation', 'tickets')
+          AND c.relname ~ '_p[0-9]{6}$'
+          AND (to_date(right(c.relname, 6), 'YYYYMM') + INTERVAL '1 month')::DATE <= p_before
+        ORDER BY c.relname
+    LOOP
+        IF v_partition.parent = 'reservation' THEN
+            EXECUTE format('DELETE FROM reservation_allocation a USING %I r WHERE a.reservation_id = r.id', v_partition.name);
+            EXECUTE format('DELETE FROM ticket_materialization_queue q USING %I r WHERE q.reservation_id = r.id', v_partition.name);
+            EXECUTE format('DELETE FROM reservation_date d USING %I r WHERE d.id = r.id', v_partition.name);
+        END IF;
+
+        EXECUTE format('ALTER TABLE %I DETACH PARTITION %I', v_partition.parent, v_partition.name);
+
+        IF p_drop THEN
+            EXECUTE format('DROP TABLE %I', v_partition.name);
+        END IF;
+
+        RETURN NEXT v_partition.name;
+    END LOOP;
+END;
+$$ LANGUAGE plpgsql;
+
+COMMENT ON TABLE reservation_date IS 'Event date of every reservation id, so lookups by id prune to one reservation partition';
@@ -0,0 +1,9 @@
+-- V6: Indexes backing keyset (cursor) pagination
+
+-- Event listing seeks on (created_at, id) in descending order
+CREATE INDEX idx_events_created_id
+ON events(created_at DESC, id DESC);
+
+-- Event date listing seeks on (event_id, date, start_time), which the event_date primary key already covers
+
+COMMENT ON INDEX idx_events_created_id IS 'Supports GET /events keyset pagination - WHERE (created_at, id) < cursor ORDER BY created_at DESC, id DESC';
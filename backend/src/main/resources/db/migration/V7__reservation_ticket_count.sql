@@ -0,0 +1,16 @@
+-- V7: Keep the ticket count on the reservation row so confirmation is a single UPDATE ... RETURNING
+
+ALTER TABLE reservation
+ADD COLUMN ticket_count INTEGER NOT NULL DEFAULT 0 CHECK (ticket_count >= 0);
+
+-- Backfill existing reservations from their tickets
+UPDATE reservation r
+SET ticket_count = t.cnt
+FROM (
+    SELECT reservation_id, COUNT(*)::INTEGER AS cnt
+    FROM tickets
+    GROUP BY reservation_id
+) t
+WHERE r.id = t.reservation_id;
+
+COMMENT ON COLUMN reservation.ticket_count IS 'Total tickets in the reservation, written at creation so confirmation never has to count tickets';
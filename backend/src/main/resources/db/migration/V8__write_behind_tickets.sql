@@ -0,0 +1,78 @@
+-- V8: Write-behind ticket materialization
+-- The reservation transaction only records one allocation row per (ticket type, shard);
+-- individual ticket rows are created later, in batches, from the materialization queue.
+
+-- Compact record of which shard holds how many tickets of each type for a reservation
+CREATE TABLE reservation_allocation (
+    reservation_id BIGINT NOT NULL REFERENCES reservation(id) ON DELETE CASCADE,
+    ticket_type_id BIGINT NOT NULL REFERENCES ticket_type(id),
+    shard_id INTEGER NOT NULL CHECK (shard_id >= 0),
+    quantity INTEGER NOT NULL CHECK (quantity > 0),
+    PRIMARY KEY (reservation_id, ticket_type_id, shard_id)
+);
+
+-- Durable queue of reservations whose ticket rows still have to be written
+CREATE TABLE ticket_materialization_queue (
+    reservation_id BIGINT PRIMARY KEY REFERENCES reservation(id) ON DELETE CASCADE,
+    enqueued_at TIMESTAMP NOT NULL DEFAULT NOW()
+);
+
+CREATE INDEX idx_ticket_materialization_queue_enqueued
+ON ticket_materialization_queue(enqueued_at);
+
+-- Backfill allocations for existing reservations from their tickets
+INSERT INTO reservation_allocation (reservation_id, ticket_type_id, shard_id, quantity)
+SELECT reservation_id, ticket_type_id, shard_id, COUNT(*)
+FROM tickets
+GROUP BY reservation_id, ticket_type_id, shard_id
+ON CONFLICT DO NOTHING;
+
+-- Counter restoration now reads allocations, which exist as soon as the reservation commits
+CREATE OR REPLACE FUNCTION restore_reservation_counters(
+    p_reservation_id BIGINT
+) RETURNS TABLE(affected_rows INTEGER) AS $$
+DECLARE
+    v_total_restored INTEGER := 0;
+    v_allocation RECORD;
+BEGIN
+    FOR v_allocation IN
+        SELECT
+            r.event_id,
+            r.date,
+            r.start_time,
+            a.ticket_type_id,
+            a.shard_id,
+            a.quantity
+        FROM reservation_allocation a
+        JOIN reservation r ON r.id = a.reservation_id
+        WHERE a.reservation_id = p_reservation_id
+    LOOP
+        -- Restore total consumption counter
+        UPDATE consumption
+        SET shard_current = GREATEST(0, shard_current - v_allocation.quantity),
+            updated_at = NOW()
+        WHERE event_id = v_allocation.event_id
+          AND date = v_allocation.date
+          AND start_time = v_allocation.start_time
+          AND shard_id = v_allocation.shard_id;
+
+        GET DIAGNOSTICS v_total_restored = ROW_COUNT;
+
+        -- Restore per-ticket-type consumption counter
+        UPDATE consumption_tt
+        SET shard_current = GREATEST(0, shard_current - v_allocation.quantity),
+            updated_at = NOW()
+        WHERE event_id = v_allocation.event_id
+          AND date = v_allocation.date
+          AND start_time = v_allocation.start_time
+          AND ticket_type_id = v_allocation.ticket_type_id
+          AND shard_id = v_allocation.shard_id;
+    END LOOP;
+
+    RETURN QUERY SELECT v_total_restored;
+END;
+$$ LANGUAGE plpgsql;
+
+COMMENT ON TABLE reservation_allocation IS 'Per (ticket type, shard) quantities held by a reservation, written in the reservation transaction';
+COMMENT ON TABLE ticket_materialization_queue IS 'Reservations whose individual tickets rows are yet to be written by the ticket materializer';
+COMMENT ON FUNCTION restore_reservation_counters IS 'Restores consumption counters when a reservation is released, using reservation_allocation';
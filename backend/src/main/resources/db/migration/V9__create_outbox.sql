@@ -0,0 +1,20 @@
+-- V9: Transactional outbox for reservation lifecycle events
+-- Rows are written in the same transaction as the reservation state change and
+-- relayed asynchronously (cache invalidation, change streams, broker).
+
+CREATE TABLE outbox_event (
+    id BIGSERIAL PRIMARY KEY,
+    event_type VARCHAR(40) NOT NULL,
+    reservation_id BIGINT NOT NULL,
+    event_id BIGINT NOT NULL,
+    date DATE NOT NULL,
+    start_time TIME NOT NULL,
+    ticket_count INTEGER NOT NULL DEFAULT 0,
+    created_at TIMESTAMP NOT NULL DEFAULT NOW(),
+    claimed_until TIMESTAMP
+);
+
+-- The relay claims rows in primary key order; the table stays small, so no further indexes
+
+COMMENT ON TABLE outbox_event IS 'Reservation lifecycle events awaiting relay, written in the same transaction as the state change';
+COMMENT ON COLUMN outbox_event.claimed_until IS 'Lease held by the relay node processing this row; expired leases are reclaimed';
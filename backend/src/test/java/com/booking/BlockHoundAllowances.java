@@ -0,0 +1,17 @@
+package com.booking;
+
+import reactor.blockhound.BlockHound;
+import reactor.blockhound.integration.BlockHoundIntegration;
+
+/**
+ * Framework calls that take a lock once, on first use, and never block afterwards.
+ * Registered through META-INF/services so blockhound-junit-platform picks it up.
+ */
+public class BlockHoundAllowances implements BlockHoundIntegration {
+
+    @Override
+    public void applyTo(BlockHound.Builder builder) {
+        // Spring Data's repository metrics listener resolves its MeterRegistry lazily behind a lock
+        builder.allowBlockingCallsInside("org.springframework.util.function.SingletonSupplier", "get");
+    }
+}
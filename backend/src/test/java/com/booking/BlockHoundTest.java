@@ -0,0 +1,30 @@
+package com.booking;
+
+import org.junit.jupiter.api.Test;
+import reactor.blockhound.BlockingOperationError;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+/**
+ * Guards the guard: blockhound-junit-platform must have installed BlockHound, otherwise the
+ * integration tests would pass with blocking calls on event-loop threads
+ */
+class BlockHoundTest {
+
+    @Test
+    void blockingCallOnNonBlockingThreadFails() {
+        Mono<Void> blocking = Mono.<Void>fromRunnable(() -> {
+                    try {
+                        Thread.sleep(1);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                })
+                .subscribeOn(Schedulers.parallel());
+
+        StepVerifier.create(blocking)
+                .expectError(BlockingOperationError.class)
+                .verify();
+    }
+}
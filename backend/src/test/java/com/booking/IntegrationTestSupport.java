@@ -0,0 +1,59 @@
+package com.booking;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.lifecycle.Startables;
+
+/**
+ * Boots the whole application on a random port against PostgreSQL and Redis containers, shared by
+ * every test class. With -Dtest.external-services=true the tests use the services from
+ * application.yml instead (docker compose up -d postgres redis), for machines without Docker.
+ */
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                // Graceful shutdown would wait up to 30 s on WebTestClient's pooled keep-alive connections
+                "server.shutdown=immediate",
+                "booking.warmup.reservation-iterations=5",
+                "logging.level.com.booking=INFO",
+                "logging.level.org.springframework.r2dbc=INFO",
+                "logging.level.org.springframework.data.r2dbc=INFO",
+                "logging.level.io.r2dbc.postgresql=INFO"
+        })
+public abstract class IntegrationTestSupport {
+
+    private static final boolean EXTERNAL_SERVICES = Boolean.getBoolean("test.external-services");
+
+    private static final PostgreSQLContainer<?> POSTGRES;
+    private static final GenericContainer<?> REDIS;
+
+    static {
+        if (EXTERNAL_SERVICES) {
+            POSTGRES = null;
+            REDIS = null;
+        } else {
+            POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine")
+                    .withDatabaseName("booking")
+                    .withUsername("booking_user")
+                    .withPassword("booking_pass");
+            REDIS = new GenericContainer<>("redis:7-alpine")
+                    .withExposedPorts(6379);
+            Startables.deepStart(POSTGRES, REDIS).join();
+        }
+    }
+
+    @DynamicPropertySource
+    static void services(DynamicPropertyRegistry registry) {
+        if (EXTERNAL_SERVICES) {
+            return;
+        }
+        // application.yml builds the R2DBC, Flyway and Redis settings from these
+        registry.add("DB_HOST", POSTGRES::getHost);
+        registry.add("DB_PORT", () -> POSTGRES.getMappedPort(PostgreSQLContainer.POSTGRESQL_PORT));
+        registry.add("REDIS_HOST", REDIS::getHost);
+        registry.add("REDIS_PORT", () -> REDIS.getMappedPort(6379));
+    }
+}
@@ -0,0 +1,114 @@
+package com.booking;
+
+import com.booking.dto.request.PaymentRequest;
+import com.booking.dto.request.ReservationRequest;
+import com.booking.dto.request.TicketRequest;
+import com.booking.dto.response.ReservationResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The event listing and reservation paths end to end over HTTP, so every request runs on the
+ * Netty event loops with BlockHound installed: a blocking call anywhere on these paths fails it
+ */
+class ReservationFlowIntegrationTest extends IntegrationTestSupport {
+
+    // Seeded by V5: event 1 plays at 20:00 on each of the next 7 days, ticket type 1 is on sale
+    private static final long EVENT_ID = 1;
+    private static final long TICKET_TYPE_ID = 1;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Test
+    void listsEventsAndEventDates() {
+        webTestClient.get().uri("/events?size=2")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.content.length()").isEqualTo(2)
+                .jsonPath("$.totalElements").isNumber()
+                .jsonPath("$.nextCursor").isNotEmpty();
+
+        webTestClient.get().uri("/events/{eventId}?size=3", EVENT_ID)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.content.length()").isEqualTo(3)
+                .jsonPath("$.content[0].totalAvailable").isNumber();
+    }
+
+    @Test
+    void reservesConfirmsAndCancels() {
+        ReservationResponse confirmed = reserve(LocalDate.now().plusDays(2));
+        assertThat(confirmed.getStatus()).isEqualTo("PENDING");
+        assertThat(confirmed.getTicketCount()).isEqualTo(2);
+
+        webTestClient.post().uri("/reservation/{reservationId}", confirmed.getReservationId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(PaymentRequest.builder().paymentReference("PAY-IT-1").build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.status").isEqualTo("CONFIRMED");
+
+        ReservationResponse cancelled = reserve(LocalDate.now().plusDays(3));
+        webTestClient.delete().uri("/reservation/{reservationId}", cancelled.getReservationId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.status").isEqualTo("CANCELLED");
+    }
+
+    @Test
+    void replaysIdempotentRetriesAndRejectsKeyReuse() {
+        String idempotencyKey = "it-" + UUID.randomUUID();
+        LocalDate date = LocalDate.now().plusDays(4);
+
+        ReservationResponse first = reserve(date, 1, idempotencyKey)
+                .expectStatus().isCreated()
+                .expectBody(ReservationResponse.class).returnResult().getResponseBody();
+        ReservationResponse retry = reserve(date, 1, idempotencyKey)
+                .expectStatus().isCreated()
+                .expectBody(ReservationResponse.class).returnResult().getResponseBody();
+        assertThat(retry.getReservationId()).isEqualTo(first.getReservationId());
+
+        reserve(date, 3, idempotencyKey)
+                .expectStatus().isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+        reserve(date.plusDays(1), 1, idempotencyKey)
+                .expectStatus().isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+    }
+
+    private ReservationResponse reserve(LocalDate date) {
+        return reserve(date, 2, null)
+                .expectStatus().isCreated()
+                .expectBody(ReservationResponse.class)
+                .returnResult()
+                .getResponseBody();
+    }
+
+    private WebTestClient.ResponseSpec reserve(LocalDate date, int quantity, String idempotencyKey) {
+        ReservationRequest request = ReservationRequest.builder()
+                .tickets(List.of(TicketRequest.builder().ticketTypeId(TICKET_TYPE_ID).quantity(quantity).build()))
+                .build();
+
+        return webTestClient.post().uri("/events/{eventId}/{date}/{startTime}", EVENT_ID, date, "20:00")
+                .contentType(MediaType.APPLICATION_JSON)
+                .headers(headers -> {
+                    if (idempotencyKey != null) {
+                        headers.set("Idempotency-Key", idempotencyKey);
+                    }
+                })
+                .bodyValue(request)
+                .exchange();
+    }
+}
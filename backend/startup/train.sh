@@ -0,0 +1,119 @@
+#!/usr/bin/env bash
+# Training run for fast JVM startup. Starts the packaged application, lets startup warm-up run, drives
+# the event and reservation flows over HTTP, then either:
+#   cds  - exits, leaving an AppCDS archive of every class loaded on those paths
+#          (target/application/application.jsa, used with -XX:SharedArchiveFile)
+#   crac - takes a CRaC checkpoint of the warmed-up JVM (target/crac, used with -XX:CRaCRestoreFrom);
+#          needs a CRaC-enabled JDK and the crac profile's org.crac dependency
+#
+# Run against a training database seeded with POST /api/test-data/seed, never against production:
+# the flows create, confirm and cancel real reservations.
+#   docker compose up -d postgres redis
+#   mvn -Pcds -DskipTests package     # or: mvn -DskipTests package && ./startup/train.sh cds
+#   mvn -Pcrac -DskipTests package    # packages with org.crac, then runs ./startup/train.sh crac
+#
+# Environment: PORT (default 18080), ITERATIONS of the HTTP flows (default 300), TRAIN_EVENT_ID and
+# TRAIN_TICKET_TYPE_ID to reserve (default 1 and 1, from the seed data), TIMEOUT seconds (default 120)
+
+set -euo pipefail
+
+MODE=${1:-cds}
+PORT=${PORT:-18080}
+ITERATIONS=${ITERATIONS:-300}
+TRAIN_EVENT_ID=${TRAIN_EVENT_ID:-1}
+TRAIN_TICKET_TYPE_ID=${TRAIN_TICKET_TYPE_ID:-1}
+TIMEOUT=${TIMEOUT:-120}
+cd "$(dirname "$0")/.."
+
+JAR=$(ls target/availability-tests-*.jar 2>/dev/null | grep -v plain | head -1 || true)
+[ -n "$JAR" ] || { echo "No JAR in target/; run mvn -DskipTests package" >&2; exit 1; }
+
+BASE="http://localhost:$PORT"
+
+wait_ready() {
+    local deadline=$(( $(date +%s) + TIMEOUT ))
+    until curl -fs "$BASE/actuator/health/readiness" 2>/dev/null | grep -q '"status":"UP"'; do
+        if (( $(date +%s) > deadline )); then
+            echo "Application not ready after ${TIMEOUT}s, see target/train-$MODE.log" >&2
+            return 1
+        fi
+        sleep 0.5
+    done
+}
+
+# First upcoming date of the training event as "YYYY-MM-DD HH:MM". The API writes dates and times as
+# arrays ("date":[2026,10,19],"startTime":[20,0]); ISO strings are accepted too
+first_event_date() {
+    local json parts
+    json=$(curl -fs "$BASE/events/$TRAIN_EVENT_ID?size=1") || return 0
+    parts=$(sed -n 's/.*"date":\[\([0-9]*\),\([0-9]*\),\([0-9]*\)\],"startTime":\[\([0-9]*\),\([0-9]*\).*/\1 \2 \3 \4 \5/p' <<< "$json")
+    if [ -n "$parts" ]; then
+        # shellcheck disable=SC2086
+        printf '%04d-%02d-%02d %02d:%02d\n' $parts
+    else
+        sed -n 's/.*"date":"\([^"]*\)","startTime":"\([0-9][0-9]:[0-9][0-9]\)[^"]*".*/\1 \2/p' <<< "$json"
+    fi
+}
+
+# The event and reservation flows, end to end through WebFlux, Jackson, the services and both caches
+train() {
+    local date_time date time body reservation
+    date_time=$(first_event_date)
+    [ -n "$date_time" ] || { echo "Event $TRAIN_EVENT_ID has no upcoming dates; seed the training database" >&2; return 1; }
+    read -r date time <<< "$date_time"
+    body="{\"tickets\":[{\"ticketTypeId\":$TRAIN_TICKET_TYPE_ID,\"quantity\":1}]}"
+
+    for i in $(seq 1 "$ITERATIONS"); do
+        curl -fs "$BASE/events?size=20" > /dev/null || true
+        curl -fs "$BASE/events?size=20&includeTotal=false" > /dev/null || true
+        curl -fs "$BASE/events/$TRAIN_EVENT_ID?size=20" > /dev/null || true
+
+        reservation=$(curl -fs -X POST "$BASE/events/$TRAIN_EVENT_ID/$date/$time" \
+            -H 'Content-Type: application/json' -H "Idempotency-Key: train-$$-$i" -d "$body" \
+            | sed -n 's/.*"reservationId":\([0-9]*\).*/\1/p' || true)
+        [ -n "$reservation" ] || continue
+
+        # Confirm one in ten so the payment path is trained without using up the date's capacity
+        if (( i % 10 == 0 )); then
+            curl -fs -X POST "$BASE/reservation/$reservation" -H 'Content-Type: application/json' \
+                -d "{\"paymentReference\":\"train-$i\"}" > /dev/null || true
+        else
+            curl -fs -X DELETE "$BASE/reservation/$reservation" > /dev/null || true
+        fi
+    done
+}
+
+case "$MODE" in
+    cds)
+        rm -rf target/application
+        java -Djarmode=tools -jar "$JAR" extract --destination target/application
+        APP_JAR=$(ls target/application/availability-tests-*.jar | head -1)
+        java -XX:ArchiveClassesAtExit=target/application/application.jsa -jar "$APP_JAR" \
+            --server.port="$PORT" > "target/train-$MODE.log" 2>&1 &
+        ;;
+    crac)
+        rm -rf target/crac
+        java -XX:CRaCCheckpointTo=target/crac -jar "$JAR" \
+            --server.port="$PORT" > "target/train-$MODE.log" 2>&1 &
+        ;;
+    *) echo "usage: $0 [cds|crac]" >&2; exit 1 ;;
+esac
+PID=$!
+trap 'kill "$PID" 2>/dev/null || true' ERR INT
+
+wait_ready
+train
+
+if [ "$MODE" = cds ]; then
+    # The archive is written as the JVM exits
+    kill -TERM "$PID"
+    wait "$PID" || true
+    echo "AppCDS archive: target/application/application.jsa"
+    echo "Run: java -XX:SharedArchiveFile=target/application/application.jsa -jar $APP_JAR"
+else
+    # Spring closes the pools and the LISTEN connection first (CheckpointRestoreHandler); the JVM exits once the image is written
+    jcmd "$PID" JDK.checkpoint
+    wait "$PID" || true
+    echo "CRaC checkpoint: target/crac"
+    echo "Run: java -XX:CRaCRestoreFrom=target/crac"
+fi
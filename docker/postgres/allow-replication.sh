@@ -0,0 +1,4 @@
+#!/bin/sh
+# Lets postgres-replica take a base backup and stream WAL (only runs when the data volume is first initialized)
+set -e
+echo "host replication all all scram-sha-256" >> "$PGDATA/pg_hba.conf"